@@ -0,0 +1,59 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedGps;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedRewardCentral;
+import com.openclassrooms.tourguide.dependency.simulation.SimulationSettings;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Seeded data and zero-latency dependency simulators shared by the benchmarks.
+ *
+ * <p>The vendor jars sleep on every call, which hides the cost of the code around them. The
+ * simulators answer immediately, and every generator is seeded, so two runs of a benchmark work on
+ * the same users, locations and attractions.
+ */
+final class BenchmarkFixtures {
+
+	static final long SEED = 42;
+	private static final SimulationSettings SIMULATION = SimulationSettings.zeroLatency(SEED);
+
+	private BenchmarkFixtures() {
+	}
+
+	static SimulatedGps gps(int attractionCount) {
+		return new SimulatedGps(SIMULATION, attractionCount);
+	}
+
+	static SimulatedRewardCentral rewardCentral() {
+		return new SimulatedRewardCentral(SIMULATION);
+	}
+
+	/**
+	 * Creates users named {@code internalUserN}, like the internal test users, each with
+	 * {@code historyLength} visited locations.
+	 */
+	static List<User> users(Random random, int count, int historyLength) {
+		List<User> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String userName = "internalUser" + i;
+			User user = new User(new UUID(random.nextLong(), random.nextLong()), userName, "000", userName + "@tourGuide.com");
+			for (int j = 0; j < historyLength; j++) {
+				user.addToVisitedLocations(new VisitedLocation(user.getUserId(), location(random), new Date()));
+			}
+			users.add(user);
+		}
+		return users;
+	}
+
+	static Location location(Random random) {
+		return new Location(-85 + random.nextDouble() * 170, -180 + random.nextDouble() * 360);
+	}
+}
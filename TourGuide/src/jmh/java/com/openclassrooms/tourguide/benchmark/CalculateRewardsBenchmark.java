@@ -0,0 +1,88 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Measures the reward calculation of a whole user base with zero-latency {@code GpsUtil} and
+ * {@code RewardCentral}, so the numbers reflect the scan, the cache and the scheduling instead of
+ * the vendor sleeps.
+ *
+ * <p>Every invocation starts from users with no rewards and an empty reward points cache. The
+ * users are rebuilt from the same seed outside of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculateRewardsBenchmark {
+
+	@Param({ "1000", "10000" })
+	public int userCount;
+
+	@Param({ "3", "30" })
+	public int historyLength;
+
+	@Param({ "26", "1000" })
+	public int attractionCount;
+
+	// the default buffer of 10 miles, and a wider one so that most users get rewards to look up
+	@Param({ "10", "100" })
+	public int proximityBuffer;
+
+	private RewardsService rewardsService;
+	private List<User> users;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		rewardsService = new RewardsService(BenchmarkFixtures.gps(attractionCount), BenchmarkFixtures.rewardCentral());
+		rewardsService.setProximityBuffer(proximityBuffer);
+	}
+
+	@Setup(Level.Invocation)
+	public void resetUsers() {
+		users = BenchmarkFixtures.users(new Random(BenchmarkFixtures.SEED + 1), userCount, historyLength);
+		rewardsService.getRewardPointsCache().invalidateAll();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		rewardsService.getExecutor().shutdownNow();
+	}
+
+	@Benchmark
+	public List<User> calculateRewardsBatch() {
+		rewardsService.calculateRewards(users).getCompletion().join();
+		return users;
+	}
+
+	@Benchmark
+	public List<User> calculateRewardsPerUser() {
+		CompletableFuture.allOf(users.stream()
+						.map(rewardsService::calculateRewards)
+						.toArray(CompletableFuture[]::new))
+				.join();
+		return users;
+	}
+}
@@ -0,0 +1,153 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.attraction.AttractionTable;
+import com.openclassrooms.tourguide.attraction.GeoDistance;
+import com.openclassrooms.tourguide.attraction.GeoPoint;
+import com.openclassrooms.tourguide.service.RewardsService;
+
+/**
+ * Measures {@link RewardsService#getDistance(Location, Location)}, alone and over every attraction,
+ * which is the inner loop of the proximity checks, against the spherical law of cosines it used
+ * before, and the {@link GeoDistance} variants working on precomputed {@link GeoPoint}s or on the
+ * columns of the {@link AttractionTable}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistanceBenchmark {
+
+	private static final int LOCATION_COUNT = 1024;
+	private static final double PROXIMITY_MILES = 10;
+
+	@Param({ "26", "1000", "10000" })
+	public int attractionCount;
+
+	private RewardsService rewardsService;
+	private List<Attraction> attractions;
+	private GeoPoint[] attractionPoints;
+	private AttractionTable attractionTable;
+	private double[] chords;
+	private int[] ids;
+	private Location[] locations;
+	private double proximityThreshold;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(BenchmarkFixtures.SEED);
+		rewardsService = new RewardsService(BenchmarkFixtures.gps(attractionCount), BenchmarkFixtures.rewardCentral());
+		attractions = rewardsService.getAttractions();
+		attractionPoints = attractions.stream().map(GeoPoint::of).toArray(GeoPoint[]::new);
+		proximityThreshold = GeoDistance.squaredChordWithin(PROXIMITY_MILES);
+		attractionTable = rewardsService.getAttractionTable();
+		chords = new double[attractionTable.size()];
+		ids = new int[attractionTable.size()];
+		locations = new Location[LOCATION_COUNT];
+		for (int i = 0; i < LOCATION_COUNT; i++) {
+			locations[i] = BenchmarkFixtures.location(random);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		rewardsService.getExecutor().shutdownNow();
+	}
+
+	@Benchmark
+	public double getDistance() {
+		Location location = nextLocation();
+		return rewardsService.getDistance(attractions.get(0), location);
+	}
+
+	@Benchmark
+	public void getDistanceToEveryAttraction(Blackhole blackhole) {
+		Location location = nextLocation();
+		for (Attraction attraction : attractions) {
+			blackhole.consume(rewardsService.getDistance(attraction, location));
+		}
+	}
+
+	@Benchmark
+	public void legacyDistanceToEveryAttraction(Blackhole blackhole) {
+		Location location = nextLocation();
+		for (Attraction attraction : attractions) {
+			blackhole.consume(legacyDistance(attraction, location));
+		}
+	}
+
+	@Benchmark
+	public void precomputedDistanceToEveryAttraction(Blackhole blackhole) {
+		GeoPoint point = GeoPoint.of(nextLocation());
+		for (GeoPoint attractionPoint : attractionPoints) {
+			blackhole.consume(GeoDistance.distance(attractionPoint, point));
+		}
+	}
+
+	@Benchmark
+	public void legacyWithinProximityOfEveryAttraction(Blackhole blackhole) {
+		Location location = nextLocation();
+		for (Attraction attraction : attractions) {
+			blackhole.consume(!(legacyDistance(attraction, location) > PROXIMITY_MILES));
+		}
+	}
+
+	@Benchmark
+	public void withinProximityOfEveryAttraction(Blackhole blackhole) {
+		GeoPoint point = GeoPoint.of(nextLocation());
+		for (GeoPoint attractionPoint : attractionPoints) {
+			blackhole.consume(GeoDistance.isWithin(attractionPoint, point, proximityThreshold));
+		}
+	}
+
+	@Benchmark
+	public double[] tableSquaredChordsToEveryAttraction() {
+		attractionTable.squaredChords(GeoPoint.of(nextLocation()), chords);
+		return chords;
+	}
+
+	@Benchmark
+	public int tableWithinProximityOfEveryAttraction() {
+		return attractionTable.within(GeoPoint.of(nextLocation()), proximityThreshold, chords, ids);
+	}
+
+	private static double legacyDistance(Location loc1, Location loc2) {
+		double lat1 = Math.toRadians(loc1.latitude);
+		double lon1 = Math.toRadians(loc1.longitude);
+		double lat2 = Math.toRadians(loc2.latitude);
+		double lon2 = Math.toRadians(loc2.longitude);
+
+		double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
+				+ Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
+
+		double nauticalMiles = 60 * Math.toDegrees(angle);
+		return GeoDistance.STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
+	}
+
+	private Location nextLocation() {
+		next = (next + 1) & (LOCATION_COUNT - 1);
+		return locations[next];
+	}
+}
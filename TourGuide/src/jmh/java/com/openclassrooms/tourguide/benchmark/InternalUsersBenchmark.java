@@ -0,0 +1,76 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.helper.InternalUserSnapshot;
+import com.openclassrooms.tourguide.user.LocationHistorySettings;
+import com.openclassrooms.tourguide.user.ShardedUserRepository;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Measures the startup of the internal test users: generating them from the seed, or reading them
+ * from a snapshot, then adding them to the user repository.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InternalUsersBenchmark {
+
+	private static final Instant REFERENCE_TIME = Instant.parse("2024-01-01T00:00:00Z");
+
+	@Param({ "10000", "100000" })
+	public int userCount;
+
+	private Path snapshot;
+
+	@Setup
+	public void setUp() throws IOException {
+		snapshot = Files.createTempFile("internal-users", ".dat");
+		InternalUserSnapshot.write(snapshot, BenchmarkFixtures.SEED, REFERENCE_TIME,
+				new InternalUserGenerator(BenchmarkFixtures.SEED, REFERENCE_TIME).generate(userCount));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(snapshot);
+	}
+
+	@Benchmark
+	public ShardedUserRepository generate() {
+		return repositoryOf(new InternalUserGenerator(BenchmarkFixtures.SEED, REFERENCE_TIME).generate(userCount));
+	}
+
+	@Benchmark
+	public ShardedUserRepository loadSnapshot() throws IOException {
+		return repositoryOf(InternalUserSnapshot.read(snapshot, BenchmarkFixtures.SEED, userCount, REFERENCE_TIME));
+	}
+
+	private ShardedUserRepository repositoryOf(User[] users) {
+		ShardedUserRepository repository = new ShardedUserRepository(ShardedUserRepository.DEFAULT_SHARD_COUNT,
+				LocationHistorySettings.defaults(), userCount);
+		Arrays.stream(users).parallel().forEach(repository::add);
+		return repository;
+	}
+}
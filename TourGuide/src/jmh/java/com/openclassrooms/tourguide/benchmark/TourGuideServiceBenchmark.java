@@ -0,0 +1,129 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gpsUtil.location.VisitedLocation;
+import tripPricer.Provider;
+import com.openclassrooms.tourguide.concurrent.DependencyLimiters;
+import com.openclassrooms.tourguide.concurrent.TourGuideExecutors;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedGps;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedTripPricer;
+import com.openclassrooms.tourguide.dependency.simulation.SimulationSettings;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.pojo.AttractionDTO;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
+import com.openclassrooms.tourguide.user.ShardedUserRepository;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Measures the user lookups, {@link TourGuideService#getNearByAttractions(VisitedLocation)} and
+ * the cached trip deals on the internal users, with zero-latency simulators of the dependencies.
+ *
+ * <p>The Tracker is stopped right after the service is created, so it does not compete with the
+ * measured calls. The lookups run on 4 threads, like concurrent controller requests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TourGuideServiceBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int userCount;
+
+	@Param({ "3", "30" })
+	public int historyLength;
+
+	@Param({ "26", "1000" })
+	public int attractionCount;
+
+	private ExecutorService executor;
+	private TourGuideService tourGuideService;
+	private User[] users;
+	private String[] userNames;
+	private VisitedLocation[] lastLocations;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(BenchmarkFixtures.SEED);
+		SimulatedGps gps = BenchmarkFixtures.gps(attractionCount);
+		executor = TourGuideExecutors.createDefault();
+		DependencyLimiters limiters = DependencyLimiters.unbounded(executor);
+		RewardsService rewardsService = new RewardsService(gps, BenchmarkFixtures.rewardCentral(), executor, limiters);
+
+		InternalTestHelper.setInternalUserNumber(0);
+		tourGuideService = new TourGuideService(gps, rewardsService,
+				new SimulatedTripPricer(SimulationSettings.zeroLatency(BenchmarkFixtures.SEED)), executor, limiters,
+				TrackerSettings.defaults(), new ShardedUserRepository());
+		tourGuideService.tracker.stopTracking();
+
+		List<User> users = BenchmarkFixtures.users(random, userCount, historyLength);
+		users.forEach(tourGuideService::addUser);
+		this.users = users.toArray(User[]::new);
+		userNames = users.stream().map(User::getUserName).toArray(String[]::new);
+		lastLocations = users.stream().map(User::getLastVisitedLocation).toArray(VisitedLocation[]::new);
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public User getUser() {
+		return tourGuideService.getUser(userNames[ThreadLocalRandom.current().nextInt(userNames.length)]);
+	}
+
+	@Benchmark
+	public List<User> getAllUsers() {
+		return tourGuideService.getAllUsers();
+	}
+
+	/**
+	 * Walks every user through the repository cursor, as a Tracker pass does, for comparison with
+	 * the copy made by {@link #getAllUsers()}.
+	 */
+	@Benchmark
+	public void iterateUsers(Blackhole blackhole) {
+		for (User user : tourGuideService.getUserRepository()) {
+			blackhole.consume(user);
+		}
+	}
+
+	@Benchmark
+	public List<AttractionDTO> getNearByAttractions() {
+		return tourGuideService.getNearByAttractions(lastLocations[ThreadLocalRandom.current().nextInt(lastLocations.length)]);
+	}
+
+	/**
+	 * Trip deals of random users, served from the trip deal cache once every user has been priced.
+	 */
+	@Benchmark
+	public List<Provider> getTripDeals() {
+		return tourGuideService.getTripDeals(users[ThreadLocalRandom.current().nextInt(users.length)]);
+	}
+}
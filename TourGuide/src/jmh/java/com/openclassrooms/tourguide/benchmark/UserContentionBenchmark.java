@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Measures {@link User#addUserReward(UserReward)} when several threads reward the same user, as
+ * the Tracker and a controller request can, while another thread reads the rewards.
+ *
+ * <p>The user is recreated at every iteration, so each iteration goes from first-time rewards to
+ * the duplicate rewards of the steady state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class UserContentionBenchmark {
+
+	@Param({ "26", "1000" })
+	public int attractionCount;
+
+	private UserReward[] rewards;
+	private User user;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Attraction> attractions = BenchmarkFixtures.gps(attractionCount).getAttractions();
+		VisitedLocation visitedLocation = new VisitedLocation(UUID.randomUUID(), new Location(0, 0), new Date());
+		rewards = new UserReward[attractions.size()];
+		for (int id = 0; id < rewards.length; id++) {
+			rewards[id] = new UserReward(visitedLocation, id, attractions.get(id), 1);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void resetUser() {
+		user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+	}
+
+	@Benchmark
+	@Group("rewards")
+	@GroupThreads(3)
+	public boolean addUserReward() {
+		return user.addUserReward(rewards[ThreadLocalRandom.current().nextInt(rewards.length)]);
+	}
+
+	@Benchmark
+	@Group("rewards")
+	@GroupThreads(1)
+	public List<UserReward> getUserRewards() {
+		return user.getUserRewards();
+	}
+}
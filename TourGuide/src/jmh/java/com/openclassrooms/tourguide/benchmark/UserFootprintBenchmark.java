@@ -0,0 +1,57 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Creates a user as the internal users of TourGuideService, with 3 locations, and gives it 2
+ * rewards. Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is then the number of bytes
+ * allocated per user, an upper bound of the heap it retains.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserFootprintBenchmark {
+
+	private static final int LOCATIONS_PER_USER = 3;
+
+	private final Attraction[] attractions = {
+			new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008),
+			new Attraction("Jackson Hole", "Jackson Hole", "WY", 43.582767, -110.821999) };
+	private final Date timeVisited = new Date();
+	private int userNumber;
+
+	@Benchmark
+	public User createUser() {
+		UUID userId = UUID.randomUUID();
+		int number = userNumber++;
+		User user = new User(userId, "internalUser" + number, "000", "internalUser" + number + "@tourGuide.com");
+		for (int i = 0; i < LOCATIONS_PER_USER; i++) {
+			user.addToVisitedLocations(new VisitedLocation(userId, new Location(i, i), timeVisited));
+		}
+		for (int id = 0; id < attractions.length; id++) {
+			user.addUserReward(new UserReward(user.getLastVisitedLocation(), id, attractions[id], 10));
+		}
+		return user;
+	}
+}
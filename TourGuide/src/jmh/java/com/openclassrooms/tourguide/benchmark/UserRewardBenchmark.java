@@ -0,0 +1,113 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Compares the already-rewarded check and the reward append of {@link User} with the previous
+ * implementation, which scanned a CopyOnWriteArrayList for the attraction name.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserRewardBenchmark {
+
+	@Param({ "25", "100", "1000" })
+	public int rewardsPerUser;
+
+	private List<UserReward> rewards;
+	private UserReward lastReward;
+	private User user;
+	private List<UserReward> legacyRewards;
+
+	@Setup
+	public void setUp() {
+		UUID userId = UUID.randomUUID();
+		VisitedLocation visitedLocation = new VisitedLocation(userId, new Location(0, 0), new Date());
+		rewards = new ArrayList<>(rewardsPerUser);
+		for (int i = 0; i < rewardsPerUser; i++) {
+			Attraction attraction = new Attraction("attraction" + i, "city", "state", 0, 0);
+			rewards.add(new UserReward(visitedLocation, i, attraction, i));
+		}
+		lastReward = rewards.get(rewardsPerUser - 1);
+
+		user = newUser(userId);
+		rewards.forEach(user::addUserReward);
+		legacyRewards = new CopyOnWriteArrayList<>(rewards);
+	}
+
+	@Benchmark
+	public boolean alreadyRewarded() {
+		return user.isRewarded(rewardsPerUser - 1);
+	}
+
+	@Benchmark
+	public boolean legacyAlreadyRewarded() {
+		return legacyRewards.stream()
+				.anyMatch(r -> r.attraction.attractionName.equals(lastReward.attraction.attractionName));
+	}
+
+	@Benchmark
+	public boolean addDuplicateReward() {
+		return user.addUserReward(lastReward);
+	}
+
+	@Benchmark
+	public boolean legacyAddDuplicateReward() {
+		return legacyAddUserReward(legacyRewards, lastReward);
+	}
+
+	@Benchmark
+	public User fillRewards() {
+		User filled = newUser(user.getUserId());
+		for (UserReward reward : rewards) {
+			filled.addUserReward(reward);
+		}
+		return filled;
+	}
+
+	@Benchmark
+	public List<UserReward> legacyFillRewards() {
+		List<UserReward> filled = new CopyOnWriteArrayList<>();
+		for (UserReward reward : rewards) {
+			legacyAddUserReward(filled, reward);
+		}
+		return filled;
+	}
+
+	private static boolean legacyAddUserReward(List<UserReward> userRewards, UserReward userReward) {
+		if (userRewards.stream().noneMatch(r -> r.attraction.attractionName.equals(userReward.attraction.attractionName))) {
+			return userRewards.add(userReward);
+		}
+		return false;
+	}
+
+	private static User newUser(UUID userId) {
+		return new User(userId, "jon", "000", "jon@tourGuide.com");
+	}
+}
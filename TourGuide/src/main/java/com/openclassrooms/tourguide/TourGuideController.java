@@ -1,19 +1,37 @@
 package com.openclassrooms.tourguide;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import com.openclassrooms.tourguide.pojo.AttractionDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import gpsUtil.location.VisitedLocation;
 
+import com.openclassrooms.tourguide.event.EventBus;
+import com.openclassrooms.tourguide.event.EventSubscription;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserRepository;
 import com.openclassrooms.tourguide.user.UserReward;
 
 import tripPricer.Provider;
@@ -21,10 +39,28 @@ import tripPricer.Provider;
 @RestController
 public class TourGuideController {
 
+	private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
 	private final TourGuideService tourGuideService;
+	private final UserRepository userRepository;
+	private final Duration rewardPointsDeadline;
+	private final EventBus eventBus;
+	private final Duration eventsTimeout;
 
-    public TourGuideController(TourGuideService tourGuideService) {
+    /**
+     * @param rewardPointsDeadline Maximum time {@code /getNearbyAttractions} waits for the reward
+     *        points, set with {@code tourguide.nearby-attractions.reward-points-deadline}.
+     * @param eventsTimeout Time after which an {@code /events} stream is closed, set with
+     *        {@code tourguide.events.timeout}.
+     */
+    public TourGuideController(TourGuideService tourGuideService, UserRepository userRepository,
+            @Value("${tourguide.nearby-attractions.reward-points-deadline:500ms}") Duration rewardPointsDeadline,
+            EventBus eventBus, @Value("${tourguide.events.timeout:30m}") Duration eventsTimeout) {
         this.tourGuideService = tourGuideService;
+        this.userRepository = userRepository;
+        this.rewardPointsDeadline = rewardPointsDeadline;
+        this.eventBus = eventBus;
+        this.eventsTimeout = eventsTimeout;
     }
 
     @RequestMapping("/")
@@ -37,24 +73,110 @@ public class TourGuideController {
     	return tourGuideService.getUserLocation(getUser(userName));
     }
 
+    /**
+     * Returns the {@code count} attractions closest to the user, 5 by default, or every attraction
+     * when {@code count} is larger. Reward points not looked up within the deadline are returned as
+     * pending.
+     *
+     * @throws ResponseStatusException 400 Bad Request when {@code count} is lower than 1.
+     */
     @RequestMapping("/getNearbyAttractions")
-    public CompletableFuture<List<AttractionDTO>> getNearbyAttractions(@RequestParam String userName) {
+    public CompletableFuture<List<AttractionDTO>> getNearbyAttractions(@RequestParam String userName,
+            @RequestParam(defaultValue = "" + TourGuideService.DEFAULT_NEARBY_ATTRACTIONS) int count) {
+        if (count < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be at least 1: " + count);
+        }
         return tourGuideService.getUserLocation(getUser(userName))
-                .thenApply(visitedLocation -> tourGuideService.getNearByAttractions(visitedLocation));
+                .thenCompose(visitedLocation -> tourGuideService.getNearByAttractions(visitedLocation, count,
+                        rewardPointsDeadline));
     }
 
+    /**
+     * Returns the rewards of the user. They are copied from memory without waiting on any
+     * dependency, so they are returned on the request thread.
+     */
     @RequestMapping("/getRewards") 
     public List<UserReward> getRewards(@RequestParam String userName) {
     	return tourGuideService.getUserRewards(getUser(userName));
     }
        
+    /**
+     * Returns the trip deals of the user, without holding the request thread while TripPricer is
+     * called. Repeated requests are served from the cache of the service.
+     */
     @RequestMapping("/getTripDeals")
-    public List<Provider> getTripDeals(@RequestParam String userName) {
-    	return tourGuideService.getTripDeals(getUser(userName));
+    public CompletableFuture<List<Provider>> getTripDeals(@RequestParam String userName) {
+    	return tourGuideService.getTripDealsAsync(getUser(userName));
     }
     
+    /**
+     * Streams the last known location of every user as newline-delimited JSON, one
+     * {@code {"userId":...,"latitude":...,"longitude":...}} object per line, instead of one
+     * {@code /getLocation} request per user. Users without a location are skipped.
+     *
+     * <p>The users are walked through the {@link UserRepository} cursor and written through a
+     * buffer sent as soon as it fills, so neither the list of users nor the response is built in
+     * memory. The body is written on the asynchronous request executor, not on the request thread.
+     */
+    @RequestMapping("/getAllCurrentLocations")
+    public ResponseEntity<StreamingResponseBody> getAllCurrentLocations() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this::writeCurrentLocations);
+    }
+
+    private void writeCurrentLocations(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+        for (User user : userRepository) {
+            VisitedLocation visitedLocation = user.getLastVisitedLocation();
+            if (visitedLocation == null) {
+                continue;
+            }
+            writer.write("{\"userId\":\"");
+            writer.write(user.getUserId().toString());
+            writer.write("\",\"latitude\":");
+            writer.write(Double.toString(visitedLocation.location.latitude));
+            writer.write(",\"longitude\":");
+            writer.write(Double.toString(visitedLocation.location.longitude));
+            writer.write("}\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Streams the locations tracked and the rewards granted, as server-sent events named
+     * {@code LocationTracked} and {@code RewardGranted}, to the user or to every user when no
+     * {@code userName} is given.
+     *
+     * <p>The events are pushed by the {@link EventBus} as they are published, instead of being
+     * polled. A client that reads slowly only fills the bounded buffer of its subscription, which
+     * drops or coalesces its events past the capacity; the tracking never waits for it. The
+     * subscription is cancelled when the stream completes, times out or fails.
+     *
+     * @throws ResponseStatusException 404 Not Found when no user has the {@code userName}, before
+     *         anything is subscribed.
+     */
+    @RequestMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents(@RequestParam(required = false) String userName) {
+        UUID userId = null;
+        if (userName != null) {
+            User user = getUser(userName);
+            if (user == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown user: " + userName);
+            }
+            userId = user.getUserId();
+        }
+        SseEmitter emitter = new SseEmitter(eventsTimeout.toMillis());
+        EventSubscription subscription = eventBus.subscribe(userId,
+                event -> emitter.send(SseEmitter.event().name(event.getClass().getSimpleName()).data(event)));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(throwable -> subscription.cancel());
+        return emitter;
+    }
+
     private User getUser(String userName) {
-    	return tourGuideService.getUser(userName);
+    	return userRepository.findByUserName(userName);
     }
    
 
@@ -1,28 +1,265 @@
 package com.openclassrooms.tourguide;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 
 import gpsUtil.GpsUtil;
 import rewardCentral.RewardCentral;
-import com.openclassrooms.tourguide.service.RewardsService;
+import tripPricer.TripPricer;
+import com.openclassrooms.tourguide.concurrent.ConcurrencyLimiter;
+import com.openclassrooms.tourguide.concurrent.DependencyLimiters;
+import com.openclassrooms.tourguide.concurrent.ExecutionMode;
+import com.openclassrooms.tourguide.concurrent.RejectionPolicy;
+import com.openclassrooms.tourguide.concurrent.TourGuideExecutors;
+import com.openclassrooms.tourguide.dependency.DependencyMode;
+import com.openclassrooms.tourguide.dependency.GpsGateway;
+import com.openclassrooms.tourguide.dependency.RewardGateway;
+import com.openclassrooms.tourguide.dependency.TripPricerGateway;
+import com.openclassrooms.tourguide.dependency.simulation.LatencyModel;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedGps;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedRewardCentral;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedTripPricer;
+import com.openclassrooms.tourguide.dependency.simulation.SimulationSettings;
+import com.openclassrooms.tourguide.event.EventBus;
+import com.openclassrooms.tourguide.event.OverflowPolicy;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.helper.InternalUserSettings;
+import com.openclassrooms.tourguide.profiling.FlightRecorderEndpoint;
+import com.openclassrooms.tourguide.profiling.FlightRecordings;
+import com.openclassrooms.tourguide.tracker.AdaptiveTrackingSettings;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
+import com.openclassrooms.tourguide.user.LocationHistorySettings;
+import com.openclassrooms.tourguide.user.ShardedUserRepository;
+import com.openclassrooms.tourguide.user.UserRepository;
+import com.openclassrooms.tourguide.user.UserStoreMode;
+import com.openclassrooms.tourguide.user.persistence.LocationSegmentStore;
+import com.openclassrooms.tourguide.user.persistence.PersistentUserRepository;
 
 @Configuration
 public class TourGuideModule {
 	
+	/**
+	 * gpsUtil, or its simulator when {@code tourguide.dependencies.mode} is SIMULATED. The simulated
+	 * attractions are generated from the seed, {@code tourguide.simulation.gps-util.attraction-count}
+	 * of them.
+	 */
 	@Bean
-	public GpsUtil getGpsUtil() {
-		return new GpsUtil();
+	public GpsGateway getGpsGateway(@Value("${tourguide.dependencies.mode:VENDOR}") DependencyMode mode,
+									Environment environment) {
+		if (mode == DependencyMode.SIMULATED) {
+			return new SimulatedGps(createSimulationSettings("gps-util", environment),
+					environment.getProperty("tourguide.simulation.gps-util.attraction-count", Integer.class, 26));
+		}
+		return GpsGateway.of(new GpsUtil());
 	}
-	
+
 	@Bean
-	public RewardsService getRewardsService() {
-		return new RewardsService(getGpsUtil(), getRewardCentral());
+	public RewardGateway getRewardGateway(@Value("${tourguide.dependencies.mode:VENDOR}") DependencyMode mode,
+										  Environment environment) {
+		if (mode == DependencyMode.SIMULATED) {
+			return new SimulatedRewardCentral(createSimulationSettings("reward-central", environment));
+		}
+		return RewardGateway.of(new RewardCentral());
 	}
-	
+
 	@Bean
-	public RewardCentral getRewardCentral() {
-		return new RewardCentral();
+	public TripPricerGateway getTripPricerGateway(@Value("${tourguide.dependencies.mode:VENDOR}") DependencyMode mode,
+												  Environment environment) {
+		if (mode == DependencyMode.SIMULATED) {
+			return new SimulatedTripPricer(createSimulationSettings("trip-pricer", environment));
+		}
+		return TripPricerGateway.of(new TripPricer());
 	}
-	
+
+	/**
+	 * Executor delivering the events of the {@link EventBus} to the {@code /events} clients, whose
+	 * network writes block. It is separate from the shared executor, so slow clients can only hold
+	 * its threads, never the ones tracking the users. The mode is set with
+	 * {@code tourguide.events.executor.mode}, like {@code tourguide.executor.mode}.
+	 */
+	@Bean(name = "eventExecutor", destroyMethod = "shutdown")
+	public ExecutorService getEventExecutor(@Value("${tourguide.events.executor.mode:PLATFORM}") ExecutionMode mode,
+											@Value("${tourguide.events.executor.pool-size:4}") int poolSize) {
+		return TourGuideExecutors.create(mode, poolSize);
+	}
+
+	/**
+	 * Bus of the location and reward events streamed on {@code /events}. Each subscriber buffers up
+	 * to {@code tourguide.events.buffer-capacity} events, and a slow subscriber loses events as
+	 * {@code tourguide.events.overflow-policy} says instead of holding back the tracking. The events
+	 * are delivered on the executor of the bus, not on the one of the dependency calls.
+	 */
+	@Bean
+	public EventBus getEventBus(@Qualifier("eventExecutor") ExecutorService executor,
+			@Value("${tourguide.events.buffer-capacity:" + EventBus.DEFAULT_BUFFER_CAPACITY + "}") int bufferCapacity,
+			@Value("${tourguide.events.overflow-policy:COALESCE_LOCATIONS}") OverflowPolicy overflowPolicy) {
+		return new EventBus(executor, bufferCapacity, overflowPolicy);
+	}
+
+	/**
+	 * Executor shared by the services for the blocking gpsUtil, RewardCentral and TripPricer calls.
+	 * The mode is set with {@code tourguide.executor.mode}: PLATFORM for a fixed pool of
+	 * {@code tourguide.executor.pool-size} threads, VIRTUAL for one virtual thread per task.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	@Primary
+	public ExecutorService getExecutor(@Value("${tourguide.executor.mode:PLATFORM}") ExecutionMode mode,
+									   @Value("${tourguide.executor.pool-size:128}") int poolSize) {
+		return TourGuideExecutors.create(mode, poolSize);
+	}
+
+	/**
+	 * Queued tasks, active threads, pool size and completed tasks of the shared executor, exported
+	 * as the {@code executor.*} metrics tagged {@code name=tourguide}. A VIRTUAL executor has no pool
+	 * and reports nothing.
+	 */
+	@Bean
+	public MeterBinder getExecutorMetrics(ExecutorService executor) {
+		return new ExecutorServiceMetrics(executor, "tourguide", Tags.empty());
+	}
+
+	/**
+	 * Flight recordings with the TourGuide events, started and dumped to
+	 * {@code tourguide.flight-recorder.directory} through the {@code flightrecorder} actuator
+	 * endpoint. A running recording keeps the last {@code tourguide.flight-recorder.max-age} of events.
+	 * The recording is closed with the context.
+	 */
+	@Bean(destroyMethod = "stop")
+	public FlightRecordings getFlightRecordings(
+			@Value("${tourguide.flight-recorder.directory:data/jfr}") String directory,
+			@Value("${tourguide.flight-recorder.max-age:1h}") Duration maxAge) {
+		return new FlightRecordings(Path.of(directory), maxAge);
+	}
+
+	@Bean
+	public FlightRecorderEndpoint getFlightRecorderEndpoint(FlightRecordings recordings) {
+		return new FlightRecorderEndpoint(recordings);
+	}
+
+	/**
+	 * Admission limits of the outbound dependencies, read from
+	 * {@code tourguide.limits.<gps-util|reward-central|trip-pricer>.*}. The limiters are
+	 * {@link io.micrometer.core.instrument.binder.MeterBinder}s, so their metrics are exported on the
+	 * actuator metrics endpoint.
+	 */
+	@Bean
+	public DependencyLimiters getDependencyLimiters(ExecutorService executor, Environment environment) {
+		return new DependencyLimiters(
+				createLimiter("gpsUtil", "gps-util", executor, environment, RejectionPolicy.CALLER_RUNS),
+				createLimiter("rewardCentral", "reward-central", executor, environment, RejectionPolicy.CALLER_RUNS),
+				createLimiter("tripPricer", "trip-pricer", executor, environment, RejectionPolicy.REJECT));
+	}
+
+	/**
+	 * User registry split into {@code tourguide.users.shard-count} shards. Each shard of the Tracker
+	 * walks a subset of them, so the count should be at least {@code tourguide.tracker.shard-count}.
+	 * With {@code tourguide.users.store} MAPPED, the users and their locations are persisted under
+	 * {@code tourguide.users.directory}, and the repository is closed with the context. Otherwise the
+	 * shards are sized for the internal test users.
+	 */
+	@Bean
+	public UserRepository getUserRepository(
+			@Value("${tourguide.users.store:MEMORY}") UserStoreMode store,
+			@Value("${tourguide.users.shard-count:" + ShardedUserRepository.DEFAULT_SHARD_COUNT + "}") int shardCount,
+			@Value("${tourguide.users.directory:data/users}") String directory,
+			@Value("${tourguide.users.records-per-segment:" + LocationSegmentStore.DEFAULT_RECORDS_PER_SEGMENT + "}")
+			int recordsPerSegment,
+			LocationHistorySettings historySettings) throws IOException {
+		if (store == UserStoreMode.MAPPED) {
+			return new PersistentUserRepository(Path.of(directory), shardCount, recordsPerSegment);
+		}
+		return new ShardedUserRepository(shardCount, historySettings, InternalTestHelper.getInternalUserNumber());
+	}
+
+	/**
+	 * Generation of the internal test users, read from {@code tourguide.internal-users.*}. An empty
+	 * snapshot path generates them at every start.
+	 */
+	@Bean
+	public InternalUserSettings getInternalUserSettings(
+			@Value("${tourguide.internal-users.seed:" + InternalUserSettings.DEFAULT_SEED + "}") long seed,
+			@Value("${tourguide.internal-users.snapshot:}") String snapshot) {
+		return new InternalUserSettings(seed, snapshot.isBlank() ? null : Path.of(snapshot));
+	}
+
+	/**
+	 * Bounds of the in-memory location history of each user, read from
+	 * {@code tourguide.users.history.*}.
+	 */
+	@Bean
+	public LocationHistorySettings getLocationHistorySettings(
+			@Value("${tourguide.users.history.capacity:" + LocationHistorySettings.DEFAULT_CAPACITY + "}") int capacity,
+			@Value("${tourguide.users.history.retention:0s}") Duration retention,
+			@Value("${tourguide.users.history.downsampled-capacity:0}") int downsampledCapacity,
+			@Value("${tourguide.users.history.downsample-interval:0s}") Duration downsampleInterval) {
+		return new LocationHistorySettings(capacity, retention, downsampledCapacity, downsampleInterval);
+	}
+
+	@Bean
+	public TrackerSettings getTrackerSettings(@Value("${tourguide.tracker.polling-interval:5m}") Duration pollingInterval,
+											  @Value("${tourguide.tracker.shard-count:4}") int shardCount,
+											  @Value("${tourguide.tracker.jitter:5s}") Duration jitter,
+											  AdaptiveTrackingSettings adaptiveTrackingSettings) {
+		return new TrackerSettings(pollingInterval, shardCount, jitter, adaptiveTrackingSettings);
+	}
+
+	@Bean
+	public AdaptiveTrackingSettings getAdaptiveTrackingSettings(
+			@Value("${tourguide.tracker.adaptive.enabled:false}") boolean enabled,
+			@Value("${tourguide.tracker.adaptive.min-interval:5m}") Duration minInterval,
+			@Value("${tourguide.tracker.adaptive.max-interval:30m}") Duration maxInterval,
+			@Value("${tourguide.tracker.adaptive.near-attraction-miles:20}") double nearAttractionMiles,
+			@Value("${tourguide.tracker.adaptive.stationary-miles:0.1}") double stationaryMiles,
+			@Value("${tourguide.tracker.adaptive.travel-speed-mph:70}") double travelSpeedMph) {
+		return new AdaptiveTrackingSettings(enabled, minInterval, maxInterval, nearAttractionMiles,
+				stationaryMiles, travelSpeedMph);
+	}
+
+	/**
+	 * Reads the settings of a simulator from {@code tourguide.simulation.<dependency>.*}. The seed is
+	 * shared by every simulator, {@code tourguide.simulation.seed}, offset per dependency so that
+	 * they do not draw the same numbers.
+	 */
+	private SimulationSettings createSimulationSettings(String property, Environment environment) {
+		String prefix = "tourguide.simulation." + property + ".";
+		long seed = environment.getProperty("tourguide.simulation.seed", Long.class, 42L) + property.hashCode();
+		Duration median = environment.getProperty(prefix + "latency.median", Duration.class, Duration.ZERO);
+		String latencyType = environment.getProperty(prefix + "latency.type", "ZERO");
+		LatencyModel latency = switch (latencyType.toUpperCase()) {
+			case "ZERO" -> LatencyModel.zero();
+			case "FIXED" -> LatencyModel.fixed(median);
+			case "LOGNORMAL" -> LatencyModel.logNormal(median,
+					environment.getProperty(prefix + "latency.sigma", Double.class, 0.5));
+			default -> throw new IllegalArgumentException("Unknown latency type for " + property + ": " + latencyType);
+		};
+		double spikeProbability = environment.getProperty(prefix + "latency.spike-probability", Double.class, 0.0);
+		if (spikeProbability > 0) {
+			latency = latency.withSpikes(spikeProbability,
+					environment.getProperty(prefix + "latency.spike", Duration.class, Duration.ofSeconds(1)));
+		}
+		return new SimulationSettings(seed, latency,
+				environment.getProperty(prefix + "error-rate", Double.class, 0.0));
+	}
+
+	private ConcurrencyLimiter createLimiter(String name, String property, ExecutorService executor,
+											 Environment environment, RejectionPolicy defaultPolicy) {
+		String prefix = "tourguide.limits." + property + ".";
+		return new ConcurrencyLimiter(name, executor,
+				environment.getProperty(prefix + "max-concurrent", Integer.class, 64),
+				environment.getProperty(prefix + "queue-capacity", Integer.class, 10_000),
+				environment.getProperty(prefix + "rejection-policy", RejectionPolicy.class, defaultPolicy));
+	}
+
 }
@@ -0,0 +1,234 @@
+package com.openclassrooms.tourguide.attraction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Immutable spatial index over the attractions of an {@link AttractionTable}.
+ *
+ * <p>Every attraction is projected on the unit sphere as a 3D point and stored in a k-d tree. The
+ * straight-line (chord) distance between two points of the sphere grows with the great-circle
+ * distance, so both queries can prune whole subtrees and only evaluate nearby candidates:
+ *
+ * <ul>
+ *   <li>{@link #withinDistance(Location, double)} returns the attractions within a radius in miles,</li>
+ *   <li>{@link #nearest(Location, int)} returns the k nearest attractions.</li>
+ * </ul>
+ *
+ * <p>Both queries also exist on {@link GeoPoint}s and table IDs, so the hot loops neither recompute
+ * the trigonometry of the location nor allocate {@link Attraction} lists.
+ *
+ * <p>Radius matches are decided on the squared chord given by
+ * {@link GeoDistance#squaredChordWithin(double)}, without computing any distance, so the result is
+ * the one of a brute-force scan with {@link GeoDistance#isWithin}.
+ */
+public class AttractionIndex {
+
+	/** Absolute slack added to the chord radius so rounding never drops a borderline candidate. */
+	private static final double CHORD_EPSILON = 1e-9;
+
+	private final AttractionTable table;
+	// Tree nodes, stored in implicit form: the node of a range [lo, hi) sits at its middle index.
+	private final int[] order;
+	private final double[] x;
+	private final double[] y;
+	private final double[] z;
+	private final byte[] splitAxis;
+
+	public AttractionIndex(List<Attraction> attractions) {
+		this(new AttractionTable(attractions));
+	}
+
+	public AttractionIndex(AttractionTable table) {
+		this.table = table;
+		int size = table.size();
+
+		Integer[] indexes = new Integer[size];
+		double[][] points = new double[size][];
+		for (int i = 0; i < size; i++) {
+			indexes[i] = i;
+			GeoPoint point = table.point(i);
+			points[i] = new double[] { point.x(), point.y(), point.z() };
+		}
+		splitAxis = new byte[size];
+		build(indexes, points, splitAxis, 0, size);
+
+		order = new int[size];
+		x = new double[size];
+		y = new double[size];
+		z = new double[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = indexes[i];
+			x[i] = points[indexes[i]][0];
+			y[i] = points[indexes[i]][1];
+			z[i] = points[indexes[i]][2];
+		}
+	}
+
+	public AttractionTable getTable() {
+		return table;
+	}
+
+	public List<Attraction> getAttractions() {
+		return table.getAttractions();
+	}
+
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * Returns the attractions whose distance to the location is not greater than {@code miles},
+	 * in the order of the original attraction list.
+	 *
+	 * @param location The center of the search.
+	 * @param miles The search radius, in statute miles.
+	 * @return The matching attractions.
+	 */
+	public List<Attraction> withinDistance(Location location, double miles) {
+		if (!(GeoDistance.milesToRadians(miles) < Math.PI)) {
+			return getAttractions();
+		}
+		int[] ids = new int[size()];
+		int count = withinDistance(GeoPoint.of(location), GeoDistance.squaredChordWithin(miles), ids);
+		List<Attraction> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(table.attraction(ids[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the IDs of the attractions within a squared chord of the point, in increasing order.
+	 *
+	 * @param point The center of the search.
+	 * @param squaredChordThreshold The threshold given by {@link GeoDistance#squaredChordWithin(double)}.
+	 * @param out An array of at least {@link #size()} elements, receiving the IDs.
+	 * @return The number of IDs written in {@code out}.
+	 */
+	public int withinDistance(GeoPoint point, double squaredChordThreshold, int[] out) {
+		if (squaredChordThreshold < 0) {
+			return 0;
+		}
+		double pruneRadius = Math.sqrt(squaredChordThreshold) + CHORD_EPSILON;
+		int count = collectWithin(new double[] { point.x(), point.y(), point.z() }, squaredChordThreshold,
+				pruneRadius * pruneRadius, 0, order.length, out, 0);
+		Arrays.sort(out, 0, count);
+		return count;
+	}
+
+	/**
+	 * Returns the {@code k} attractions nearest to the location, closest first.
+	 *
+	 * @param location The center of the search.
+	 * @param k The maximum number of attractions to return.
+	 * @return The nearest attractions, sorted by increasing distance.
+	 */
+	public List<Attraction> nearest(Location location, int k) {
+		NearestAttractions nearest = nearest(GeoPoint.of(location), k);
+		List<Attraction> result = new ArrayList<>(nearest.size());
+		for (int i = 0; i < nearest.size(); i++) {
+			result.add(table.attraction(nearest.id(i)));
+		}
+		return result;
+	}
+
+	/**
+	 * Selects the {@code k} attractions nearest to the point, closest first.
+	 */
+	public NearestAttractions nearest(GeoPoint point, int k) {
+		NearestAttractions nearest = new NearestAttractions(Math.min(k, order.length));
+		if (k > 0 && order.length > 0) {
+			collectNearest(new double[] { point.x(), point.y(), point.z() }, 0, order.length, nearest);
+		}
+		return nearest.sort();
+	}
+
+	/**
+	 * Collects the nodes within {@code threshold} (squared chord). Subtrees are pruned on the
+	 * slightly larger {@code pruneSquared}, so rounding on the split axis never drops a match.
+	 */
+	private int collectWithin(double[] point, double threshold, double pruneSquared, int lo, int hi,
+							  int[] out, int count) {
+		if (lo >= hi) {
+			return count;
+		}
+		int mid = (lo + hi) >>> 1;
+		if (squaredChord(point, mid) <= threshold) {
+			out[count++] = order[mid];
+		}
+		double delta = point[splitAxis[mid]] - coordinate(mid, splitAxis[mid]);
+		if (delta <= 0 || delta * delta <= pruneSquared) {
+			count = collectWithin(point, threshold, pruneSquared, lo, mid, out, count);
+		}
+		if (delta >= 0 || delta * delta <= pruneSquared) {
+			count = collectWithin(point, threshold, pruneSquared, mid + 1, hi, out, count);
+		}
+		return count;
+	}
+
+	private void collectNearest(double[] point, int lo, int hi, NearestAttractions nearest) {
+		if (lo >= hi) {
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		nearest.offer(order[mid], squaredChord(point, mid));
+
+		double delta = point[splitAxis[mid]] - coordinate(mid, splitAxis[mid]);
+		int nearLo = delta <= 0 ? lo : mid + 1;
+		int nearHi = delta <= 0 ? mid : hi;
+		int farLo = delta <= 0 ? mid + 1 : lo;
+		int farHi = delta <= 0 ? hi : mid;
+		collectNearest(point, nearLo, nearHi, nearest);
+		if (delta * delta < nearest.worstSquaredChord()) {
+			collectNearest(point, farLo, farHi, nearest);
+		}
+	}
+
+	private double squaredChord(double[] point, int node) {
+		double dx = point[0] - x[node];
+		double dy = point[1] - y[node];
+		double dz = point[2] - z[node];
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	private double coordinate(int node, int axis) {
+		return axis == 0 ? x[node] : axis == 1 ? y[node] : z[node];
+	}
+
+	/**
+	 * Sorts each range on its widest axis so that its middle element splits it in two halves. The
+	 * middle element never moves afterwards, so its split axis is recorded at the same position.
+	 */
+	private static void build(Integer[] indexes, double[][] points, byte[] axes, int lo, int hi) {
+		if (hi - lo <= 1) {
+			return;
+		}
+		int axis = widestAxis(indexes, points, lo, hi);
+		Arrays.sort(indexes, lo, hi, Comparator.comparingDouble(i -> points[i][axis]));
+		int mid = (lo + hi) >>> 1;
+		axes[mid] = (byte) axis;
+		build(indexes, points, axes, lo, mid);
+		build(indexes, points, axes, mid + 1, hi);
+	}
+
+	private static int widestAxis(Integer[] indexes, double[][] points, int lo, int hi) {
+		double[] spread = new double[3];
+		for (int axis = 0; axis < 3; axis++) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = lo; i < hi; i++) {
+				double value = points[indexes[i]][axis];
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+			spread[axis] = max - min;
+		}
+		return spread[0] >= spread[1] && spread[0] >= spread[2] ? 0 : spread[1] >= spread[2] ? 1 : 2;
+	}
+}
@@ -0,0 +1,187 @@
+package com.openclassrooms.tourguide.attraction;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Immutable, column-oriented copy of the attractions, built once from {@code gpsUtil.getAttractions()}.
+ *
+ * <p>Each attraction gets an int ID, its position in the original list. The {@link GeoPoint} of each
+ * attraction is stored in the primitive arrays {@code x}, {@code y} and {@code z} indexed by that ID,
+ * the only coordinates the scans read, instead of being computed from {@link Attraction} objects.
+ *
+ * <p>The IDs of every table built are also kept in a process-wide map, {@link #sharedIdOf(UUID)},
+ * for the callers given an {@link Attraction} without its table.
+ *
+ * <p>{@link #squaredChords(GeoPoint, double[])} measures a point against every attraction in one
+ * branch-free loop over contiguous arrays, which the JIT compiles to SIMD instructions.
+ */
+public final class AttractionTable {
+
+	private static final Map<UUID, Integer> SHARED_IDS = new ConcurrentHashMap<>();
+
+	private final List<Attraction> attractions;
+	private final UUID[] attractionIds;
+	private final Location[] locations;
+	private final Map<UUID, Integer> idsByAttractionId;
+	private final double[] x;
+	private final double[] y;
+	private final double[] z;
+
+	public AttractionTable(List<Attraction> attractions) {
+		this.attractions = List.copyOf(attractions);
+		int size = this.attractions.size();
+		attractionIds = new UUID[size];
+		locations = new Location[size];
+		idsByAttractionId = new HashMap<>(size * 2);
+		x = new double[size];
+		y = new double[size];
+		z = new double[size];
+		for (int id = 0; id < size; id++) {
+			Attraction attraction = this.attractions.get(id);
+			attractionIds[id] = attraction.attractionId;
+			idsByAttractionId.put(attraction.attractionId, id);
+			locations[id] = new Location(attraction.latitude, attraction.longitude);
+			GeoPoint point = GeoPoint.of(attraction);
+			x[id] = point.x();
+			y[id] = point.y();
+			z[id] = point.z();
+		}
+		SHARED_IDS.putAll(idsByAttractionId);
+	}
+
+	/**
+	 * @return The int ID of the attraction in the table it was built into, or -1 if no table holds
+	 *         it.
+	 */
+	public static int sharedIdOf(UUID attractionId) {
+		Integer id = SHARED_IDS.get(attractionId);
+		return id == null ? -1 : id;
+	}
+
+	public int size() {
+		return attractionIds.length;
+	}
+
+	public List<Attraction> getAttractions() {
+		return attractions;
+	}
+
+	public Attraction attraction(int id) {
+		return attractions.get(id);
+	}
+
+	public UUID attractionId(int id) {
+		return attractionIds[id];
+	}
+
+	/**
+	 * @return The location of the attraction, as a plain {@link Location} shared by every caller.
+	 */
+	public Location location(int id) {
+		return locations[id];
+	}
+
+	/**
+	 * @return The int ID of the attraction, or -1 if it is not in the table.
+	 */
+	public int idOf(UUID attractionId) {
+		Integer id = idsByAttractionId.get(attractionId);
+		return id == null ? -1 : id;
+	}
+
+	public GeoPoint point(int id) {
+		return new GeoPoint(x[id], y[id], z[id]);
+	}
+
+	/**
+	 * Distance in statute miles from the attraction to the point.
+	 */
+	public double distance(int id, GeoPoint point) {
+		return GeoDistance.chordToMiles(Math.sqrt(squaredChord(id, point)));
+	}
+
+	public double squaredChord(int id, GeoPoint point) {
+		double dx = x[id] - point.x();
+		double dy = y[id] - point.y();
+		double dz = z[id] - point.z();
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Writes the squared chord from the point to every attraction, by ID, in {@code out}.
+	 *
+	 * @param point The point to measure from.
+	 * @param out An array of at least {@link #size()} elements.
+	 */
+	public void squaredChords(GeoPoint point, double[] out) {
+		double px = point.x();
+		double py = point.y();
+		double pz = point.z();
+		double[] x = this.x;
+		double[] y = this.y;
+		double[] z = this.z;
+		for (int id = 0; id < x.length; id++) {
+			double dx = x[id] - px;
+			double dy = y[id] - py;
+			double dz = z[id] - pz;
+			out[id] = dx * dx + dy * dy + dz * dz;
+		}
+	}
+
+	/**
+	 * Writes the distance in statute miles from the point to every attraction, by ID, in {@code out}.
+	 *
+	 * @param point The point to measure from.
+	 * @param out An array of at least {@link #size()} elements.
+	 */
+	public void distances(GeoPoint point, double[] out) {
+		squaredChords(point, out);
+		for (int id = 0; id < attractionIds.length; id++) {
+			out[id] = GeoDistance.chordToMiles(Math.sqrt(out[id]));
+		}
+	}
+
+	/**
+	 * Selects the {@code k} attractions closest to the point by a linear scan, closest first.
+	 *
+	 * @param point The point to measure from.
+	 * @param k The maximum number of attractions to select.
+	 * @param chords A scratch array of at least {@link #size()} elements.
+	 * @return The selected attractions.
+	 */
+	public NearestAttractions nearest(GeoPoint point, int k, double[] chords) {
+		squaredChords(point, chords);
+		NearestAttractions nearest = new NearestAttractions(Math.min(k, attractionIds.length));
+		for (int id = 0; id < attractionIds.length; id++) {
+			nearest.offer(id, chords[id]);
+		}
+		return nearest.sort();
+	}
+
+	/**
+	 * Collects the IDs of the attractions within a squared chord of the point, in increasing order.
+	 *
+	 * @param point The point to measure from.
+	 * @param squaredChordThreshold The threshold given by {@link GeoDistance#squaredChordWithin(double)}.
+	 * @param chords A scratch array of at least {@link #size()} elements.
+	 * @param out An array of at least {@link #size()} elements, receiving the IDs.
+	 * @return The number of IDs written in {@code out}.
+	 */
+	public int within(GeoPoint point, double squaredChordThreshold, double[] chords, int[] out) {
+		squaredChords(point, chords);
+		int count = 0;
+		for (int id = 0; id < attractionIds.length; id++) {
+			if (chords[id] <= squaredChordThreshold) {
+				out[count++] = id;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.tourguide.attraction;
+
+import gpsUtil.location.Location;
+
+/**
+ * Great-circle distance helpers shared by the rewards computation and the attraction index.
+ *
+ * <p>Distances are expressed in statute miles, as {@code RewardsService.getDistance} always did.
+ * They are computed from the chord between the two {@link GeoPoint}s, {@code 2 * asin(chord / 2)},
+ * which is the haversine formula written on unit vectors:
+ *
+ * <ul>
+ *   <li>The trigonometry of a location is computed once per {@link GeoPoint}, instead of four
+ *       {@code toRadians}, five sin/cos and one {@code acos} per distance with the spherical law of
+ *       cosines used before.</li>
+ *   <li>The law of cosines loses precision at short range, where {@code acos} is evaluated near 1.
+ *       The chord form keeps it. Both agree within {@value #LEGACY_TOLERANCE_MILES} miles
+ *       everywhere, the difference being the rounding error of the law of cosines.</li>
+ *   <li>"Within N miles" checks compare the squared chord with {@link #squaredChordWithin(double)},
+ *       without any inverse trigonometric call.</li>
+ * </ul>
+ */
+public final class GeoDistance {
+
+	public static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+
+	/** Statute miles covered by one degree of arc on the earth's surface (60 nautical miles). */
+	public static final double STATUTE_MILES_PER_DEGREE = 60 * STATUTE_MILES_PER_NAUTICAL_MILE;
+
+	/** Maximum difference with the spherical law of cosines formerly used, in statute miles. */
+	public static final double LEGACY_TOLERANCE_MILES = 1e-6;
+
+	private GeoDistance() {
+	}
+
+	public static double distance(Location loc1, Location loc2) {
+		return distance(GeoPoint.of(loc1), GeoPoint.of(loc2));
+	}
+
+	public static double distance(GeoPoint point1, GeoPoint point2) {
+		return chordToMiles(Math.sqrt(squaredChord(point1, point2)));
+	}
+
+	/**
+	 * Returns {@code true} if the distance between the points is not greater than the distance
+	 * whose squared chord is given, computed once with {@link #squaredChordWithin(double)}.
+	 */
+	public static boolean isWithin(GeoPoint point1, GeoPoint point2, double squaredChordThreshold) {
+		return squaredChord(point1, point2) <= squaredChordThreshold;
+	}
+
+	public static double squaredChord(GeoPoint point1, GeoPoint point2) {
+		double dx = point1.x() - point2.x();
+		double dy = point1.y() - point2.y();
+		double dz = point1.z() - point2.z();
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Returns the squared chord of a distance in statute miles, for {@link #isWithin}. A negative
+	 * distance matches no point, a distance of half the earth's circumference or more matches all.
+	 */
+	public static double squaredChordWithin(double miles) {
+		double angle = milesToRadians(miles);
+		if (angle < 0) {
+			return -1;
+		}
+		if (!(angle < Math.PI)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double halfChord = Math.sin(angle / 2);
+		return 4 * halfChord * halfChord;
+	}
+
+	/**
+	 * Converts a chord of the unit sphere to the great-circle distance it spans, in statute miles.
+	 */
+	public static double chordToMiles(double chord) {
+		double angle = 2 * Math.asin(Math.min(1, chord / 2));
+		return Math.toDegrees(angle) * STATUTE_MILES_PER_DEGREE;
+	}
+
+	/**
+	 * Converts a distance in statute miles to the central angle it spans, in radians.
+	 */
+	public static double milesToRadians(double miles) {
+		return Math.toRadians(miles / STATUTE_MILES_PER_DEGREE);
+	}
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.tourguide.attraction;
+
+import gpsUtil.location.Location;
+
+/**
+ * A location projected once on the unit sphere, so that distances can be computed without any
+ * trigonometric call on the location.
+ *
+ * <p>{@code z} is the sine of the latitude, and {@code x} and {@code y} carry its cosine times the
+ * cosine and sine of the longitude.
+ */
+public record GeoPoint(double x, double y, double z) {
+
+	public static GeoPoint of(Location location) {
+		return of(location.latitude, location.longitude);
+	}
+
+	public static GeoPoint of(double latitude, double longitude) {
+		double lat = Math.toRadians(latitude);
+		double lon = Math.toRadians(longitude);
+		double cosLat = Math.cos(lat);
+		return new GeoPoint(cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat));
+	}
+}
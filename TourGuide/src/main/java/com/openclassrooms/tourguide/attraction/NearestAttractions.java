@@ -0,0 +1,118 @@
+package com.openclassrooms.tourguide.attraction;
+
+/**
+ * Bounded selection of the {@code k} attractions closest to a point, by {@link AttractionTable} ID.
+ *
+ * <p>Candidates are offered with their squared chord to the point, computed once by the caller. The
+ * current best {@code k} are kept in a max-heap of two primitive arrays, so a farther candidate is
+ * rejected with one comparison and no allocation, and a closer one replaces the farthest in
+ * {@code O(log k)}. {@link #sort()} then orders the result closest first.
+ */
+public final class NearestAttractions {
+
+	private final int[] ids;
+	private final double[] squaredChords;
+	private int size;
+	private int examinedCount;
+
+	public NearestAttractions(int k) {
+		int capacity = Math.max(0, k);
+		ids = new int[capacity];
+		squaredChords = new double[capacity];
+	}
+
+	/**
+	 * Offers a candidate, kept if fewer than {@code k} candidates are held or if it is closer than
+	 * the farthest of them.
+	 */
+	public void offer(int id, double squaredChord) {
+		examinedCount++;
+		if (size < ids.length) {
+			int child = size++;
+			while (child > 0) {
+				int parent = (child - 1) >>> 1;
+				if (squaredChords[parent] >= squaredChord) {
+					break;
+				}
+				ids[child] = ids[parent];
+				squaredChords[child] = squaredChords[parent];
+				child = parent;
+			}
+			ids[child] = id;
+			squaredChords[child] = squaredChord;
+		} else if (size > 0 && squaredChord < squaredChords[0]) {
+			siftDown(id, squaredChord, size);
+		}
+	}
+
+	/**
+	 * @return The squared chord a candidate must beat to be kept.
+	 */
+	public double worstSquaredChord() {
+		return size < ids.length ? Double.POSITIVE_INFINITY : squaredChords[0];
+	}
+
+	/**
+	 * Sorts the held candidates closest first, in place. No candidate can be offered afterwards.
+	 */
+	NearestAttractions sort() {
+		for (int end = size - 1; end > 0; end--) {
+			int farthestId = ids[0];
+			double farthest = squaredChords[0];
+			siftDown(ids[end], squaredChords[end], end);
+			ids[end] = farthestId;
+			squaredChords[end] = farthest;
+		}
+		return this;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The number of candidates offered, whose distance was computed.
+	 */
+	public int getExaminedCount() {
+		return examinedCount;
+	}
+
+	public int id(int index) {
+		return ids[index];
+	}
+
+	public double squaredChord(int index) {
+		return squaredChords[index];
+	}
+
+	/**
+	 * @return The distance in statute miles of the attraction at the given rank.
+	 */
+	public double distance(int index) {
+		return GeoDistance.chordToMiles(Math.sqrt(squaredChords[index]));
+	}
+
+	/**
+	 * Places the given entry at the root of the heap {@code [0, heapSize)} and moves it down.
+	 */
+	private void siftDown(int id, double squaredChord, int heapSize) {
+		int parent = 0;
+		while (true) {
+			int child = 2 * parent + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && squaredChords[child + 1] > squaredChords[child]) {
+				child++;
+			}
+			if (squaredChords[child] <= squaredChord) {
+				break;
+			}
+			ids[parent] = ids[child];
+			squaredChords[parent] = squaredChords[child];
+			parent = child;
+		}
+		ids[parent] = id;
+		squaredChords[parent] = squaredChord;
+	}
+}
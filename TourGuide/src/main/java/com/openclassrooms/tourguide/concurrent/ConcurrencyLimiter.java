@@ -0,0 +1,241 @@
+package com.openclassrooms.tourguide.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Admission layer in front of one outbound dependency (gpsUtil, RewardCentral or TripPricer).
+ *
+ * <p>At most {@code maxConcurrent} calls run on the executor at once. The next calls wait in a
+ * queue bounded to {@code queueCapacity}, so the executor queue never holds more than the running
+ * calls, and once that queue is full the {@link RejectionPolicy} applies. This keeps memory flat
+ * when the Tracker submits every user at once, and a slow dependency can only hold its own permits
+ * instead of every thread of the shared executor.
+ *
+ * <p>The queue depth, the running calls, the rejected and caller-run calls, the time spent
+ * waiting for a permit and the duration of the calls themselves are exported as metrics, tagged
+ * with the dependency name. Every call to a dependency goes through its limiter, so the call
+ * durations tell which dependency slows down a tracking cycle.
+ */
+public class ConcurrencyLimiter implements MeterBinder {
+
+	private final String name;
+	private final Executor executor;
+	private final int maxConcurrent;
+	private final int queueCapacity;
+	private final RejectionPolicy rejectionPolicy;
+	private final Semaphore permits;
+	private final Queue<Call<?>> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queueDepth = new AtomicInteger();
+
+	private final LongAdder rejectedCount = new LongAdder();
+	private final LongAdder callerRunsCount = new LongAdder();
+	private final LongAdder waitCount = new LongAdder();
+	private final LongAdder totalWaitNanos = new LongAdder();
+	private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+	private volatile Timer waitTimer;
+	private volatile Timer callTimer;
+
+	public ConcurrencyLimiter(String name, Executor executor, int maxConcurrent, int queueCapacity,
+							  RejectionPolicy rejectionPolicy) {
+		if (maxConcurrent <= 0) {
+			throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+		}
+		this.name = name;
+		this.executor = executor;
+		this.maxConcurrent = maxConcurrent;
+		this.queueCapacity = queueCapacity;
+		this.rejectionPolicy = rejectionPolicy;
+		this.permits = new Semaphore(maxConcurrent);
+	}
+
+	/**
+	 * Creates a limiter that never makes calls wait, for callers that do not configure limits.
+	 */
+	public static ConcurrencyLimiter unbounded(String name, Executor executor) {
+		return new ConcurrencyLimiter(name, executor, Integer.MAX_VALUE, Integer.MAX_VALUE, RejectionPolicy.REJECT);
+	}
+
+	/**
+	 * Runs the call on the executor as soon as a permit is available.
+	 *
+	 * @param call The blocking call to the dependency.
+	 * @return A {@link CompletableFuture} completed with the result of the call, or failed with a
+	 *         {@link RejectedExecutionException} if the call was rejected.
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> call) {
+		Call<T> pending = new Call<>(call, System.nanoTime());
+		if (queue.isEmpty() && permits.tryAcquire()) {
+			dispatch(pending);
+			return pending.result;
+		}
+		if (queueDepth.incrementAndGet() > queueCapacity) {
+			queueDepth.decrementAndGet();
+			reject(pending);
+			return pending.result;
+		}
+		queue.add(pending);
+		drain();
+		return pending.result;
+	}
+
+	/**
+	 * Hands queued calls to the executor while permits are available. Called after every enqueue
+	 * and every permit release, so a queued call is never left behind with a free permit.
+	 */
+	private void drain() {
+		while (!queue.isEmpty() && permits.tryAcquire()) {
+			Call<?> next = queue.poll();
+			if (next == null) {
+				permits.release();
+				return;
+			}
+			queueDepth.decrementAndGet();
+			dispatch(next);
+		}
+	}
+
+	private <T> void dispatch(Call<T> pending) {
+		recordWait(System.nanoTime() - pending.submittedAt);
+		try {
+			CompletableFuture.supplyAsync(() -> call(pending), executor).whenComplete((value, throwable) -> {
+				permits.release();
+				drain();
+				complete(pending, value, throwable);
+			});
+		} catch (RejectedExecutionException e) {
+			permits.release();
+			pending.result.completeExceptionally(e);
+		}
+	}
+
+	private <T> void reject(Call<T> pending) {
+		if (rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+			callerRunsCount.increment();
+			try {
+				pending.result.complete(call(pending));
+			} catch (RuntimeException e) {
+				pending.result.completeExceptionally(e);
+			}
+		} else {
+			rejectedCount.increment();
+			pending.result.completeExceptionally(new RejectedExecutionException(
+					name + " limiter saturated: " + maxConcurrent + " running, " + queueCapacity + " queued"));
+		}
+	}
+
+	private <T> T call(Call<T> pending) {
+		Timer timer = callTimer;
+		if (timer == null) {
+			return pending.call.get();
+		}
+		long start = System.nanoTime();
+		try {
+			return pending.call.get();
+		} finally {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private static <T> void complete(Call<T> pending, T value, Throwable throwable) {
+		if (throwable != null) {
+			pending.result.completeExceptionally(throwable);
+		} else {
+			pending.result.complete(value);
+		}
+	}
+
+	private void recordWait(long nanos) {
+		waitCount.increment();
+		totalWaitNanos.add(nanos);
+		maxWaitNanos.accumulate(nanos);
+		Timer timer = waitTimer;
+		if (timer != null) {
+			timer.record(nanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("tourguide.limiter.queue.depth", this, ConcurrencyLimiter::getQueueDepth)
+				.tag("dependency", name)
+				.description("Calls waiting for a permit")
+				.register(registry);
+		Gauge.builder("tourguide.limiter.active", this, ConcurrencyLimiter::getActiveCount)
+				.tag("dependency", name)
+				.description("Calls running on the executor")
+				.register(registry);
+		FunctionCounter.builder("tourguide.limiter.rejected", this, ConcurrencyLimiter::getRejectedCount)
+				.tag("dependency", name)
+				.description("Calls rejected because the queue was full")
+				.register(registry);
+		FunctionCounter.builder("tourguide.limiter.caller.runs", this, ConcurrencyLimiter::getCallerRunsCount)
+				.tag("dependency", name)
+				.description("Calls run by the submitting thread because the queue was full")
+				.register(registry);
+		waitTimer = Timer.builder("tourguide.limiter.wait")
+				.tag("dependency", name)
+				.description("Time spent waiting for a permit")
+				.register(registry);
+		callTimer = Timer.builder("tourguide.dependency.call")
+				.tag("dependency", name)
+				.description("Duration of the calls to the dependency, failed ones included")
+				.publishPercentileHistogram()
+				.register(registry);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	public int getActiveCount() {
+		return maxConcurrent - permits.availablePermits();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	public long getCallerRunsCount() {
+		return callerRunsCount.sum();
+	}
+
+	public long getAverageWaitNanos() {
+		long count = waitCount.sum();
+		return count == 0 ? 0 : totalWaitNanos.sum() / count;
+	}
+
+	public long getMaxWaitNanos() {
+		return maxWaitNanos.get();
+	}
+
+	private static final class Call<T> {
+		private final Supplier<T> call;
+		private final long submittedAt;
+		private final CompletableFuture<T> result = new CompletableFuture<>();
+
+		private Call(Supplier<T> call, long submittedAt) {
+			this.call = call;
+			this.submittedAt = submittedAt;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.openclassrooms.tourguide.concurrent;
+
+import java.util.concurrent.Executor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The {@link ConcurrencyLimiter} of each outbound dependency, configured in {@code TourGuideModule}.
+ */
+public record DependencyLimiters(ConcurrencyLimiter gpsUtil, ConcurrencyLimiter rewardCentral,
+								 ConcurrencyLimiter tripPricer) implements MeterBinder {
+
+	/**
+	 * Limiters that never make calls wait, for services created without configured limits.
+	 */
+	public static DependencyLimiters unbounded(Executor executor) {
+		return new DependencyLimiters(ConcurrencyLimiter.unbounded("gpsUtil", executor),
+				ConcurrencyLimiter.unbounded("rewardCentral", executor),
+				ConcurrencyLimiter.unbounded("tripPricer", executor));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		gpsUtil.bindTo(registry);
+		rewardCentral.bindTo(registry);
+		tripPricer.bindTo(registry);
+	}
+}
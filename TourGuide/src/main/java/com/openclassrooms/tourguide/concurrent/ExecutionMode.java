@@ -0,0 +1,13 @@
+package com.openclassrooms.tourguide.concurrent;
+
+/**
+ * How the blocking calls to gpsUtil, RewardCentral and TripPricer are executed.
+ */
+public enum ExecutionMode {
+
+	/** A fixed pool of platform threads, the pool size capping the concurrent blocking calls. */
+	PLATFORM,
+
+	/** One virtual thread per task. Requires a JDK with virtual threads, falls back to PLATFORM otherwise. */
+	VIRTUAL
+}
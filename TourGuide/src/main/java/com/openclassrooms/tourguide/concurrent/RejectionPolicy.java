@@ -0,0 +1,13 @@
+package com.openclassrooms.tourguide.concurrent;
+
+/**
+ * What a {@link ConcurrencyLimiter} does with a call when its wait queue is full.
+ */
+public enum RejectionPolicy {
+
+	/** Fail the call with a {@link java.util.concurrent.RejectedExecutionException}. */
+	REJECT,
+
+	/** Run the call in the submitting thread, which slows the submitter down to the dependency's pace. */
+	CALLER_RUNS
+}
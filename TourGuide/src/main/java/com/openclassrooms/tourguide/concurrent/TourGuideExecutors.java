@@ -0,0 +1,58 @@
+package com.openclassrooms.tourguide.concurrent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the executors running the blocking calls of the services.
+ *
+ * <p>The project is compiled for Java 17, so the virtual-thread-per-task executor is looked up
+ * reflectively: on a JDK 21+ runtime {@link ExecutionMode#VIRTUAL} starts one virtual thread per
+ * task, on older runtimes it falls back to a fixed pool of platform threads.
+ */
+public final class TourGuideExecutors {
+
+	public static final int DEFAULT_POOL_SIZE = 64;
+
+	private static final Logger logger = LoggerFactory.getLogger(TourGuideExecutors.class);
+
+	private TourGuideExecutors() {
+	}
+
+	public static ExecutorService create(ExecutionMode mode, int poolSize) {
+		if (mode == ExecutionMode.VIRTUAL) {
+			MethodHandle factory = virtualThreadPerTaskExecutor();
+			if (factory != null) {
+				try {
+					logger.info("Using a virtual-thread-per-task executor");
+					return (ExecutorService) factory.invoke();
+				} catch (Throwable e) {
+					logger.warn("Could not create a virtual-thread-per-task executor: " + e.getMessage());
+				}
+			} else {
+				logger.warn("Virtual threads are not supported by this JDK, falling back to "
+						+ poolSize + " platform threads");
+			}
+		}
+		return Executors.newFixedThreadPool(poolSize);
+	}
+
+	public static ExecutorService createDefault() {
+		return create(ExecutionMode.PLATFORM, DEFAULT_POOL_SIZE);
+	}
+
+	private static MethodHandle virtualThreadPerTaskExecutor() {
+		try {
+			return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+					MethodType.methodType(ExecutorService.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.tourguide.dependency;
+
+/**
+ * Implementation of the gpsUtil, RewardCentral and TripPricer dependencies, set with
+ * {@code tourguide.dependencies.mode}.
+ */
+public enum DependencyMode {
+	/**
+	 * The vendor libraries of {@code libs/}.
+	 */
+	VENDOR,
+	/**
+	 * Seeded local simulators with a configurable latency and error rate.
+	 */
+	SIMULATED
+}
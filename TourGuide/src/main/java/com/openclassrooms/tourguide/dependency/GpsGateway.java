@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.dependency;
+
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Source of user locations and attractions, implemented by the gpsUtil library or by the
+ * {@link com.openclassrooms.tourguide.dependency.simulation.SimulatedGps simulator}.
+ */
+public interface GpsGateway {
+
+	VisitedLocation getUserLocation(UUID userId);
+
+	List<Attraction> getAttractions();
+
+	/**
+	 * Adapts the gpsUtil library.
+	 */
+	static GpsGateway of(GpsUtil gpsUtil) {
+		return new GpsGateway() {
+			@Override
+			public VisitedLocation getUserLocation(UUID userId) {
+				return gpsUtil.getUserLocation(userId);
+			}
+
+			@Override
+			public List<Attraction> getAttractions() {
+				return gpsUtil.getAttractions();
+			}
+		};
+	}
+}
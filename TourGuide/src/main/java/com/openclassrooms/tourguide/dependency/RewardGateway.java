@@ -0,0 +1,22 @@
+package com.openclassrooms.tourguide.dependency;
+
+import java.util.UUID;
+
+import rewardCentral.RewardCentral;
+
+/**
+ * Source of the reward points of an attraction for a user, implemented by the RewardCentral
+ * library or by the {@link com.openclassrooms.tourguide.dependency.simulation.SimulatedRewardCentral simulator}.
+ */
+@FunctionalInterface
+public interface RewardGateway {
+
+	int getAttractionRewardPoints(UUID attractionId, UUID userId);
+
+	/**
+	 * Adapts the RewardCentral library.
+	 */
+	static RewardGateway of(RewardCentral rewardCentral) {
+		return rewardCentral::getAttractionRewardPoints;
+	}
+}
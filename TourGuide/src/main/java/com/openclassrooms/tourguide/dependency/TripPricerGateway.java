@@ -0,0 +1,25 @@
+package com.openclassrooms.tourguide.dependency;
+
+import java.util.List;
+import java.util.UUID;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+/**
+ * Source of trip deals, implemented by the TripPricer library or by the
+ * {@link com.openclassrooms.tourguide.dependency.simulation.SimulatedTripPricer simulator}.
+ */
+@FunctionalInterface
+public interface TripPricerGateway {
+
+	List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+							int rewardsPoints);
+
+	/**
+	 * Adapts the TripPricer library.
+	 */
+	static TripPricerGateway of(TripPricer tripPricer) {
+		return tripPricer::getPrice;
+	}
+}
@@ -0,0 +1,61 @@
+package com.openclassrooms.tourguide.dependency.simulation;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of the latency of a simulated dependency call.
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+	/**
+	 * @param random The random generator of the call.
+	 * @return The latency of the call, in nanoseconds.
+	 */
+	long sampleNanos(SplittableRandom random);
+
+	/**
+	 * Calls answer immediately, to measure our own CPU cost.
+	 */
+	static LatencyModel zero() {
+		return random -> 0;
+	}
+
+	static LatencyModel fixed(Duration latency) {
+		long nanos = requireNotNegative(latency, "latency").toNanos();
+		return random -> nanos;
+	}
+
+	/**
+	 * Log-normal latency: most calls take about {@code median}, and a long tail grows with
+	 * {@code sigma} (0.5 gives a 99th percentile about 3 times the median).
+	 */
+	static LatencyModel logNormal(Duration median, double sigma) {
+		requireNotNegative(median, "median");
+		if (!(sigma >= 0)) {
+			throw new IllegalArgumentException("sigma must not be negative: " + sigma);
+		}
+		double mu = Math.log(Math.max(1, median.toNanos()));
+		return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+	}
+
+	/**
+	 * Adds a spike of {@code spike} to a fraction {@code probability} of the calls, on top of this
+	 * model, to simulate GC pauses or an overloaded dependency.
+	 */
+	default LatencyModel withSpikes(double probability, Duration spike) {
+		if (!(probability >= 0 && probability <= 1)) {
+			throw new IllegalArgumentException("probability must be between 0 and 1: " + probability);
+		}
+		long spikeNanos = requireNotNegative(spike, "spike").toNanos();
+		return random -> sampleNanos(random) + (random.nextDouble() < probability ? spikeNanos : 0);
+	}
+
+	private static Duration requireNotNegative(Duration duration, String name) {
+		if (duration.isNegative()) {
+			throw new IllegalArgumentException(name + " must not be negative: " + duration);
+		}
+		return duration;
+	}
+}
@@ -0,0 +1,59 @@
+package com.openclassrooms.tourguide.dependency.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base of the simulators: draws the latency and the failure of every call from a random generator
+ * seeded with the settings seed and the call number.
+ *
+ * <p>The n-th call of a simulator always gets the same random generator, so a run is reproduced by
+ * the same seed. Under concurrency, which user makes the n-th call depends on scheduling.
+ */
+abstract class SimulatedDependency {
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final String name;
+	private final SimulationSettings settings;
+	private final AtomicLong callCount = new AtomicLong();
+	private final AtomicLong failureCount = new AtomicLong();
+
+	SimulatedDependency(String name, SimulationSettings settings) {
+		this.name = name;
+		this.settings = settings;
+	}
+
+	/**
+	 * Waits for the simulated latency, then fails at the configured error rate.
+	 *
+	 * @return The random generator of the call, for the values it returns.
+	 */
+	SplittableRandom call() {
+		long call = callCount.getAndIncrement();
+		SplittableRandom random = new SplittableRandom(settings.seed() + call * GOLDEN_GAMMA);
+		long latency = settings.latency().sampleNanos(random);
+		if (latency > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(latency);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (random.nextDouble() < settings.errorRate()) {
+			failureCount.incrementAndGet();
+			throw new SimulatedFailureException("Simulated " + name + " failure on call " + call);
+		}
+		return random;
+	}
+
+
+	public long getCallCount() {
+		return callCount.get();
+	}
+
+	public long getFailureCount() {
+		return failureCount.get();
+	}
+}
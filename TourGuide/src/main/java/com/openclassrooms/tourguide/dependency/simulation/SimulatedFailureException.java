@@ -0,0 +1,11 @@
+package com.openclassrooms.tourguide.dependency.simulation;
+
+/**
+ * Failure of a simulated dependency call, thrown at the configured error rate.
+ */
+public class SimulatedFailureException extends RuntimeException {
+
+	public SimulatedFailureException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.tourguide.dependency.simulation;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.dependency.GpsGateway;
+
+/**
+ * Local replacement of gpsUtil: users are located anywhere on the globe, and the attractions are
+ * generated once from the seed.
+ */
+public class SimulatedGps extends SimulatedDependency implements GpsGateway {
+
+	private final List<Attraction> attractions;
+
+	public SimulatedGps(SimulationSettings settings, int attractionCount) {
+		super("gpsUtil", settings);
+		if (attractionCount < 0) {
+			throw new IllegalArgumentException("attractionCount must not be negative: " + attractionCount);
+		}
+		SplittableRandom random = new SplittableRandom(settings.seed());
+		List<Attraction> generated = new ArrayList<>(attractionCount);
+		for (int i = 0; i < attractionCount; i++) {
+			Location location = randomLocation(random);
+			generated.add(new Attraction("Attraction " + (i + 1), "City " + (i + 1), "State",
+					location.latitude, location.longitude));
+		}
+		this.attractions = List.copyOf(generated);
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		return new VisitedLocation(userId, randomLocation(call()), new Date());
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		call();
+		return new ArrayList<>(attractions);
+	}
+
+	private static Location randomLocation(SplittableRandom random) {
+		return new Location(random.nextDouble(-85.05112878, 85.05112878), random.nextDouble(-180, 180));
+	}
+}
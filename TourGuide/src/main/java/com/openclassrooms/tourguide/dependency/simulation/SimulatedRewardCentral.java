@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.dependency.simulation;
+
+import java.util.UUID;
+
+import com.openclassrooms.tourguide.dependency.RewardGateway;
+
+/**
+ * Local replacement of RewardCentral, returning between 1 and 1000 points like the library.
+ */
+public class SimulatedRewardCentral extends SimulatedDependency implements RewardGateway {
+
+	public SimulatedRewardCentral(SimulationSettings settings) {
+		super("rewardCentral", settings);
+	}
+
+	@Override
+	public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+		return call().nextInt(1, 1001);
+	}
+}
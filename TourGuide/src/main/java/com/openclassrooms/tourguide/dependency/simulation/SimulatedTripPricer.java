@@ -0,0 +1,39 @@
+package com.openclassrooms.tourguide.dependency.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import tripPricer.Provider;
+import com.openclassrooms.tourguide.dependency.TripPricerGateway;
+
+/**
+ * Local replacement of TripPricer, returning 5 deals from distinct providers like the library.
+ */
+public class SimulatedTripPricer extends SimulatedDependency implements TripPricerGateway {
+
+	private static final int DEALS = 5;
+	private static final List<String> PROVIDER_NAMES = List.of("Holiday Travels", "Enterprize Ventures Limited",
+			"Sunny Days", "FlyAway Trips", "United Partners Vacations", "Dream Trips", "Live Free",
+			"Dancing Waves Cruselines and Partners", "AdventureCo", "Cure-Your-Blues");
+
+	public SimulatedTripPricer(SimulationSettings settings) {
+		super("tripPricer", settings);
+	}
+
+	@Override
+	public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+								   int rewardsPoints) {
+		SplittableRandom random = call();
+		List<String> names = new ArrayList<>(PROVIDER_NAMES);
+		List<Provider> providers = new ArrayList<>(DEALS);
+		for (int i = 0; i < DEALS; i++) {
+			String name = names.remove(random.nextInt(names.size()));
+			double price = Math.max(0, (random.nextInt(100, 1000) * adults + random.nextInt(50, 500) * children)
+					* nightsStay / 3.0 - rewardsPoints);
+			providers.add(new Provider(attractionId, name, price));
+		}
+		return providers;
+	}
+}
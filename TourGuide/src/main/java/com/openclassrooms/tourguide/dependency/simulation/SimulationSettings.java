@@ -0,0 +1,28 @@
+package com.openclassrooms.tourguide.dependency.simulation;
+
+import java.util.Objects;
+
+/**
+ * Settings of a simulated dependency.
+ *
+ * @param seed The seed of the random generators: the same seed gives the same latencies, failures
+ *        and values, call after call.
+ * @param latency The latency distribution of the calls.
+ * @param errorRate The fraction of calls failing with a {@link SimulatedFailureException}, between 0 and 1.
+ */
+public record SimulationSettings(long seed, LatencyModel latency, double errorRate) {
+
+	public SimulationSettings {
+		Objects.requireNonNull(latency, "latency");
+		if (!(errorRate >= 0 && errorRate <= 1)) {
+			throw new IllegalArgumentException("errorRate must be between 0 and 1: " + errorRate);
+		}
+	}
+
+	/**
+	 * Calls answering immediately and never failing.
+	 */
+	public static SimulationSettings zeroLatency(long seed) {
+		return new SimulationSettings(seed, LatencyModel.zero(), 0);
+	}
+}
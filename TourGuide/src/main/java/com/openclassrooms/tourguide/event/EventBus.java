@@ -0,0 +1,120 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * In-process bus of the {@link TourGuideEvent}s, from the services to the clients streaming them.
+ *
+ * <p>Publishing never blocks: the event is only added to the bounded buffer of each matching
+ * {@link EventSubscription}, which delivers its events in order on the executor. The subscribers
+ * may block, such as on a network write, so the executor should be dedicated to the bus rather
+ * than shared with the tracking. A subscription follows one user or every user; the events of a
+ * user only reach the subscriptions of that user and the ones to every user, so publishing costs
+ * nothing when nobody follows the user.
+ */
+public class EventBus {
+
+	public static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+	private final Executor executor;
+	private final int bufferCapacity;
+	private final OverflowPolicy overflowPolicy;
+	private final List<EventSubscription> allUsersSubscriptions = new CopyOnWriteArrayList<>();
+	private final Map<UUID, List<EventSubscription>> userSubscriptions = new ConcurrentHashMap<>();
+
+	public EventBus(Executor executor) {
+		this(executor, DEFAULT_BUFFER_CAPACITY, OverflowPolicy.COALESCE_LOCATIONS);
+	}
+
+	/**
+	 * @param executor The executor the subscriptions deliver their events on.
+	 * @param bufferCapacity The number of events a subscription buffers while its subscriber is busy.
+	 * @param overflowPolicy What a subscription does with the events published while its buffer is full.
+	 */
+	public EventBus(Executor executor, int bufferCapacity, OverflowPolicy overflowPolicy) {
+		if (bufferCapacity <= 0) {
+			throw new IllegalArgumentException("bufferCapacity must be positive: " + bufferCapacity);
+		}
+		this.executor = executor;
+		this.bufferCapacity = bufferCapacity;
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public void publish(TourGuideEvent event) {
+		for (EventSubscription subscription : allUsersSubscriptions) {
+			subscription.offer(event);
+		}
+		List<EventSubscription> subscriptions = userSubscriptions.get(event.userId());
+		if (subscriptions != null) {
+			for (EventSubscription subscription : subscriptions) {
+				subscription.offer(event);
+			}
+		}
+	}
+
+	/**
+	 * Subscribes to the events of a user, or of every user, with the buffer capacity and the
+	 * overflow policy of the bus.
+	 *
+	 * @param userId The user to follow, or {@code null} for every user.
+	 * @param subscriber Receives the events, one at a time. The subscription is cancelled when it
+	 *                   throws.
+	 */
+	public EventSubscription subscribe(UUID userId, EventSubscriber subscriber) {
+		return subscribe(userId, bufferCapacity, overflowPolicy, subscriber);
+	}
+
+	public EventSubscription subscribe(UUID userId, int bufferCapacity, OverflowPolicy overflowPolicy,
+									   EventSubscriber subscriber) {
+		EventSubscription subscription = new EventSubscription(this, userId, bufferCapacity, overflowPolicy,
+				subscriber, executor);
+		if (userId == null) {
+			allUsersSubscriptions.add(subscription);
+		} else {
+			// added within the map operation, so a concurrent unsubscribe cannot drop the list meanwhile
+			userSubscriptions.compute(userId, (id, subscriptions) -> {
+				List<EventSubscription> added = subscriptions == null ? new CopyOnWriteArrayList<>() : subscriptions;
+				added.add(subscription);
+				return added;
+			});
+		}
+		return subscription;
+	}
+
+	/**
+	 * @return The number of active subscriptions.
+	 */
+	public int getSubscriptionCount() {
+		int count = allUsersSubscriptions.size();
+		for (List<EventSubscription> subscriptions : userSubscriptions.values()) {
+			count += subscriptions.size();
+		}
+		return count;
+	}
+
+	void unsubscribe(EventSubscription subscription) {
+		UUID userId = subscription.getUserId();
+		if (userId == null) {
+			allUsersSubscriptions.remove(subscription);
+			return;
+		}
+		userSubscriptions.computeIfPresent(userId, (id, subscriptions) -> {
+			subscriptions.remove(subscription);
+			return subscriptions.isEmpty() ? null : subscriptions;
+		});
+	}
+
+	/**
+	 * Receiver of the events of an {@link EventSubscription}.
+	 */
+	@FunctionalInterface
+	public interface EventSubscriber {
+
+		void onEvent(TourGuideEvent event) throws Exception;
+	}
+}
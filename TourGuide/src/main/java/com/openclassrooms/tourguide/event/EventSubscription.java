@@ -0,0 +1,173 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscription to the {@link EventBus}, buffering up to a fixed number of events for its
+ * subscriber.
+ *
+ * <p>The publishers only add to the buffer. The first event added to an empty buffer schedules a
+ * drain on the executor, which hands the events to the subscriber one at a time, in order, until
+ * the buffer is empty; a subscriber therefore never runs on a publishing thread, and at most one
+ * thread works for it at a time. A drain hands over at most {@value #MAX_EVENTS_PER_DRAIN} events,
+ * then schedules the next one, so a busy subscriber takes turns with the others instead of holding
+ * an executor thread. When the subscriber does not keep up, the buffer overflows as its
+ * {@link OverflowPolicy} says, and the dropped and coalesced events are counted.
+ */
+public final class EventSubscription {
+
+	static final int MAX_EVENTS_PER_DRAIN = 64;
+
+	private final Logger logger = LoggerFactory.getLogger(EventSubscription.class);
+	private final EventBus bus;
+	private final UUID userId;
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+	private final EventBus.EventSubscriber subscriber;
+	private final Executor executor;
+
+	// guarded by this
+	private final ArrayDeque<Slot> buffer = new ArrayDeque<>();
+	// buffered LocationTracked slots by user, with COALESCE_LOCATIONS
+	private final Map<UUID, Slot> bufferedLocations = new HashMap<>();
+	private boolean draining;
+	private long droppedCount;
+	private long coalescedCount;
+	private volatile boolean cancelled;
+
+	EventSubscription(EventBus bus, UUID userId, int capacity, OverflowPolicy overflowPolicy,
+					  EventBus.EventSubscriber subscriber, Executor executor) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.bus = bus;
+		this.userId = userId;
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.subscriber = subscriber;
+		this.executor = executor;
+	}
+
+	void offer(TourGuideEvent event) {
+		if (cancelled) {
+			return;
+		}
+		synchronized (this) {
+			if (overflowPolicy == OverflowPolicy.COALESCE_LOCATIONS && event instanceof LocationTracked) {
+				Slot buffered = bufferedLocations.get(event.userId());
+				if (buffered != null) {
+					buffered.event = event;
+					coalescedCount++;
+					return;
+				}
+			}
+			if (buffer.size() >= capacity) {
+				if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+					droppedCount++;
+					return;
+				}
+				forget(buffer.poll());
+				droppedCount++;
+			}
+			Slot slot = new Slot(event);
+			buffer.add(slot);
+			if (overflowPolicy == OverflowPolicy.COALESCE_LOCATIONS && event instanceof LocationTracked) {
+				bufferedLocations.put(event.userId(), slot);
+			}
+			if (draining) {
+				return;
+			}
+			draining = true;
+		}
+		scheduleDrain();
+	}
+
+	private void scheduleDrain() {
+		try {
+			executor.execute(this::drain);
+		} catch (RejectedExecutionException e) {
+			logger.warn("Cancelling an event subscription, its executor rejected the delivery: " + e.getMessage());
+			cancel();
+		}
+	}
+
+	private void drain() {
+		for (int delivered = 0; !cancelled; delivered++) {
+			if (delivered == MAX_EVENTS_PER_DRAIN) {
+				// still draining: the next drain takes over once the other tasks had their turn
+				scheduleDrain();
+				return;
+			}
+			TourGuideEvent event;
+			synchronized (this) {
+				Slot slot = buffer.poll();
+				if (slot == null) {
+					draining = false;
+					return;
+				}
+				forget(slot);
+				event = slot.event;
+			}
+			try {
+				subscriber.onEvent(event);
+			} catch (Exception e) {
+				logger.debug("Cancelling an event subscription, its subscriber failed: " + e.getMessage());
+				cancel();
+			}
+		}
+	}
+
+	private void forget(Slot slot) {
+		if (slot.event instanceof LocationTracked) {
+			bufferedLocations.remove(slot.event.userId(), slot);
+		}
+	}
+
+	/**
+	 * Stops the delivery and removes the subscription from the bus. The buffered events are dropped.
+	 */
+	public void cancel() {
+		cancelled = true;
+		bus.unsubscribe(this);
+		synchronized (this) {
+			buffer.clear();
+			bufferedLocations.clear();
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return The user followed, or {@code null} for every user.
+	 */
+	public UUID getUserId() {
+		return userId;
+	}
+
+	public synchronized long getDroppedCount() {
+		return droppedCount;
+	}
+
+	public synchronized long getCoalescedCount() {
+		return coalescedCount;
+	}
+
+	private static final class Slot {
+		// replaced by a newer location of the same user while buffered
+		private TourGuideEvent event;
+
+		private Slot(TourGuideEvent event) {
+			this.event = event;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.UUID;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * A new location of the user was recorded by {@code TourGuideService.trackUserLocation}.
+ *
+ * @param timeVisited The time of the location, in milliseconds since the epoch.
+ */
+public record LocationTracked(UUID userId, double latitude, double longitude, long timeVisited)
+		implements TourGuideEvent {
+
+	public static LocationTracked of(VisitedLocation visitedLocation) {
+		return new LocationTracked(visitedLocation.userId, visitedLocation.location.latitude,
+				visitedLocation.location.longitude, visitedLocation.timeVisited.getTime());
+	}
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.event;
+
+/**
+ * What an {@link EventSubscription} does with an event published while its buffer is full.
+ */
+public enum OverflowPolicy {
+
+	/** Drop the oldest buffered event to make room for the new one. */
+	DROP_OLDEST,
+
+	/** Drop the new event, keeping the buffered ones. */
+	DROP_NEWEST,
+
+	/**
+	 * Replace the buffered {@link LocationTracked} of the same user, whatever the buffer size, so a
+	 * slow subscriber only receives the latest location of each user; drop the oldest buffered event
+	 * when the buffer is full otherwise.
+	 */
+	COALESCE_LOCATIONS
+}
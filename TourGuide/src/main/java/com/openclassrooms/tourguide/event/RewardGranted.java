@@ -0,0 +1,10 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.UUID;
+
+/**
+ * The user was granted a reward by the reward calculation. Duplicate rewards, which are not added,
+ * are not published.
+ */
+public record RewardGranted(UUID userId, String attractionName, int rewardPoints) implements TourGuideEvent {
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.tourguide.event;
+
+import java.util.UUID;
+
+/**
+ * Event published on the {@link EventBus} when something happens to a user.
+ */
+public sealed interface TourGuideEvent permits LocationTracked, RewardGranted {
+
+	UUID userId();
+}
@@ -0,0 +1,84 @@
+package com.openclassrooms.tourguide.helper;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Seeded, parallel generator of the internal test users.
+ *
+ * <p>The users are generated by chunks of {@value #CHUNK_SIZE} on the common fork-join pool. Each
+ * chunk draws from its own {@link SplittableRandom}, split from the seeded one in chunk order, so
+ * the users only depend on the seed and the reference time, not on the number of threads. Each
+ * user gets {@value #LOCATIONS_PER_USER} random locations, visited up to 30 days before the
+ * reference time.
+ */
+public final class InternalUserGenerator {
+
+	public static final int CHUNK_SIZE = 4096;
+	public static final int LOCATIONS_PER_USER = 3;
+
+	private static final double MAX_LATITUDE = 85.05112878;
+	private static final double MAX_LONGITUDE = 180;
+	private static final int MAX_DAYS_AGO = 30;
+
+	private final long seed;
+	private final long referenceMillis;
+
+	public InternalUserGenerator(long seed, Instant referenceTime) {
+		this.seed = seed;
+		this.referenceMillis = referenceTime.toEpochMilli();
+	}
+
+	/**
+	 * @param userCount The number of users, named {@code internalUser0} to
+	 *                  {@code internalUser<userCount - 1>}.
+	 * @return The users, in the order of their names.
+	 */
+	public User[] generate(int userCount) {
+		User[] users = new User[userCount];
+		int chunkCount = (userCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		SplittableRandom root = new SplittableRandom(seed);
+		SplittableRandom[] randoms = new SplittableRandom[chunkCount];
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			randoms[chunk] = root.split();
+		}
+		IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+			SplittableRandom random = randoms[chunk];
+			int to = Math.min(userCount, (chunk + 1) * CHUNK_SIZE);
+			for (int i = chunk * CHUNK_SIZE; i < to; i++) {
+				users[i] = generateUser(random, i);
+			}
+		});
+		return users;
+	}
+
+	private User generateUser(SplittableRandom random, int index) {
+		String userName = "internalUser" + index;
+		UUID userId = randomUUID(random);
+		User user = new User(userId, userName, "000", userName + "@tourGuide.com");
+		for (int i = 0; i < LOCATIONS_PER_USER; i++) {
+			Location location = new Location(random.nextDouble(-MAX_LATITUDE, MAX_LATITUDE),
+					random.nextDouble(-MAX_LONGITUDE, MAX_LONGITUDE));
+			long timeVisited = referenceMillis - TimeUnit.DAYS.toMillis(random.nextInt(MAX_DAYS_AGO));
+			user.addToVisitedLocations(new VisitedLocation(userId, location, new Date(timeVisited)));
+		}
+		return user;
+	}
+
+	/**
+	 * @return A version 4 UUID drawn from the random, unlike {@link UUID#randomUUID()}.
+	 */
+	private static UUID randomUUID(SplittableRandom random) {
+		long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+		long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+		return new UUID(mostSigBits, leastSigBits);
+	}
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.helper;
+
+import java.nio.file.Path;
+
+/**
+ * Generation of the internal test users, read from {@code tourguide.internal-users.*}. Their number
+ * is set by {@link InternalTestHelper}.
+ *
+ * @param seed Seed of the {@link InternalUserGenerator}, the same seed giving the same users.
+ * @param snapshot {@link InternalUserSnapshot} file the users are loaded from, written after they
+ *                 are generated when it does not exist yet, or {@code null} to always generate them.
+ */
+public record InternalUserSettings(long seed, Path snapshot) {
+
+	public static final long DEFAULT_SEED = 42;
+
+	public static InternalUserSettings defaults() {
+		return new InternalUserSettings(DEFAULT_SEED, null);
+	}
+}
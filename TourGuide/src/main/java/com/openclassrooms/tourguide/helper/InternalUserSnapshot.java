@@ -0,0 +1,106 @@
+package com.openclassrooms.tourguide.helper;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.PackedLocation;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Binary file of generated internal users, so that a restart reads them instead of generating them
+ * again.
+ *
+ * <p>The header holds the seed, the number of users and the reference time they were generated
+ * with, then each user is written as its ID, name, phone number, email address and visited
+ * locations, each location as its {@link PackedLocation} and time. A snapshot written for another
+ * seed or number of users is ignored.
+ *
+ * <p>The {@link InternalUserGenerator} dates the locations back from the reference time, so a
+ * snapshot read for a later reference time is shifted by the difference: it gives the users the
+ * generator would for that time, instead of locations growing older at every restart.
+ */
+public final class InternalUserSnapshot {
+
+	private static final int MAGIC = 0x54475553;
+	private static final int VERSION = 2;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private InternalUserSnapshot() {
+	}
+
+	/**
+	 * Writes the users to a temporary file moved over the snapshot, so a snapshot is never partially
+	 * written.
+	 */
+	public static void write(Path snapshot, long seed, Instant referenceTime, User[] users) throws IOException {
+		Path directory = snapshot.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, snapshot.getFileName().toString(), ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(seed);
+			out.writeInt(users.length);
+			out.writeLong(referenceTime.toEpochMilli());
+			for (User user : users) {
+				out.writeLong(user.getUserId().getMostSignificantBits());
+				out.writeLong(user.getUserId().getLeastSignificantBits());
+				out.writeUTF(user.getUserName());
+				out.writeUTF(user.getPhoneNumber());
+				out.writeUTF(user.getEmailAddress());
+				List<VisitedLocation> visitedLocations = user.getVisitedLocations();
+				out.writeInt(visitedLocations.size());
+				for (VisitedLocation visitedLocation : visitedLocations) {
+					out.writeLong(PackedLocation.pack(visitedLocation.location));
+					out.writeLong(visitedLocation.timeVisited.getTime());
+				}
+			}
+		} catch (IOException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @param referenceTime The reference time the users are wanted for, the times visited being
+	 *                      shifted by its difference with the one of the snapshot.
+	 * @return The users of the snapshot, or {@code null} if there is no snapshot or it was written
+	 *         for another seed or number of users.
+	 */
+	public static User[] read(Path snapshot, long seed, int userCount, Instant referenceTime) throws IOException {
+		if (!Files.exists(snapshot)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(snapshot)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != seed || in.readInt() != userCount) {
+				return null;
+			}
+			long shift = referenceTime.toEpochMilli() - in.readLong();
+			User[] users = new User[userCount];
+			for (int i = 0; i < userCount; i++) {
+				UUID userId = new UUID(in.readLong(), in.readLong());
+				User user = new User(userId, in.readUTF(), in.readUTF(), in.readUTF());
+				int locationCount = in.readInt();
+				for (int j = 0; j < locationCount; j++) {
+					long packedLocation = in.readLong();
+					user.addToVisitedLocations(new VisitedLocation(userId, PackedLocation.toLocation(packedLocation),
+							new Date(in.readLong() + shift)));
+				}
+				users[i] = user;
+			}
+			return users;
+		}
+	}
+}
@@ -10,13 +10,20 @@ public class AttractionDTO {
     private Location userLocation;
     private Double distance;
     private int rewardPoint;
+    // true when the reward points lookup did not answer in time: rewardPoint is then the last known value, or 0
+    private boolean rewardPointPending;
 
     public AttractionDTO(String attractionName, Location attractionLocation, Location userLocation, double distance, int attractionRewardPoints) {
+        this(attractionName, attractionLocation, userLocation, distance, attractionRewardPoints, false);
+    }
+
+    public AttractionDTO(String attractionName, Location attractionLocation, Location userLocation, double distance, int attractionRewardPoints, boolean rewardPointPending) {
         this.name = attractionName;
         this.attractionLocation = attractionLocation;
         this.userLocation = userLocation;
         this.distance = distance;
         this.rewardPoint = attractionRewardPoints;
+        this.rewardPointPending = rewardPointPending;
     }
 
     public Location getAttractionLocation() {
@@ -51,6 +58,14 @@ public class AttractionDTO {
         this.rewardPoint = rewardPoint;
     }
 
+    public boolean isRewardPointPending() {
+        return rewardPointPending;
+    }
+
+    public void setRewardPointPending(boolean rewardPointPending) {
+        this.rewardPointPending = rewardPointPending;
+    }
+
     public Location getUserLocation() {
         return userLocation;
     }
@@ -64,12 +79,12 @@ public class AttractionDTO {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AttractionDTO that = (AttractionDTO) o;
-        return rewardPoint == that.rewardPoint && Objects.equals(name, that.name) && Objects.equals(attractionLocation, that.attractionLocation) && Objects.equals(userLocation, that.userLocation) && Objects.equals(distance, that.distance);
+        return rewardPoint == that.rewardPoint && rewardPointPending == that.rewardPointPending && Objects.equals(name, that.name) && Objects.equals(attractionLocation, that.attractionLocation) && Objects.equals(userLocation, that.userLocation) && Objects.equals(distance, that.distance);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, attractionLocation, userLocation, distance, rewardPoint);
+        return Objects.hash(name, attractionLocation, userLocation, distance, rewardPoint, rewardPointPending);
     }
 
     @Override
@@ -80,6 +95,7 @@ public class AttractionDTO {
                 ", userLocation=" + userLocation +
                 ", distance=" + distance +
                 ", rewardPoint=" + rewardPoint +
+                ", rewardPointPending=" + rewardPointPending +
                 '}';
     }
 }
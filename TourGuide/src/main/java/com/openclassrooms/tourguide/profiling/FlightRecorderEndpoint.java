@@ -0,0 +1,52 @@
+package com.openclassrooms.tourguide.profiling;
+
+import java.io.IOException;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint controlling the {@link FlightRecordings}:
+ * <ul>
+ *   <li>{@code GET /actuator/flightrecorder} returns the state of the recording;</li>
+ *   <li>{@code POST /actuator/flightrecorder/start} starts it, with the optional {@code settings};</li>
+ *   <li>{@code POST /actuator/flightrecorder/dump} writes its events to a new file;</li>
+ *   <li>{@code POST /actuator/flightrecorder/stop} stops it.</li>
+ * </ul>
+ */
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+	private final FlightRecordings recordings;
+
+	public FlightRecorderEndpoint(FlightRecordings recordings) {
+		this.recordings = recordings;
+	}
+
+	@ReadOperation
+	public FlightRecordings.RecordingStatus status() {
+		return recordings.status();
+	}
+
+	@WriteOperation
+	public FlightRecordings.RecordingStatus control(@Selector String action, @Nullable String settings)
+			throws IOException {
+		try {
+			return switch (action) {
+				case "start" -> recordings.start(settings);
+				case "dump" -> {
+					recordings.dump();
+					yield recordings.status();
+				}
+				case "stop" -> recordings.stop();
+				default -> throw new InvalidEndpointRequestException("Unknown action: " + action, "Unknown action");
+			};
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+		}
+	}
+}
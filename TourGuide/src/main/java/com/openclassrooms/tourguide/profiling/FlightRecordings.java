@@ -0,0 +1,133 @@
+package com.openclassrooms.tourguide.profiling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-demand Flight Recorder recording of the application, with the TourGuide events.
+ *
+ * <p>At most one recording runs at a time. It keeps the last {@code maxAge} of events on disk, so
+ * it can run continuously, and each {@link #dump()} writes a copy of them to a new file of the
+ * directory while the recording goes on. The TourGuide events are only built while a recording
+ * runs, so they cost nothing the rest of the time.
+ */
+public class FlightRecordings {
+
+	public static final String DEFAULT_SETTINGS = "default";
+	private static final String RECORDING_NAME = "tourguide";
+	private static final DateTimeFormatter DUMP_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
+			.withZone(ZoneOffset.UTC);
+
+	private final Logger logger = LoggerFactory.getLogger(FlightRecordings.class);
+	private final Path directory;
+	private final Duration maxAge;
+
+	// guarded by this
+	private Recording recording;
+	private String settings;
+	private Path lastDump;
+
+	/**
+	 * @param directory The directory the recordings are dumped to.
+	 * @param maxAge The age past which the events are dropped from a running recording.
+	 */
+	public FlightRecordings(Path directory, Duration maxAge) {
+		this.directory = directory;
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Starts a recording, unless one is already running.
+	 *
+	 * @param settings The JDK settings the recording uses besides the TourGuide events,
+	 *                 {@value #DEFAULT_SETTINGS} (low overhead) or {@code profile}, or
+	 *                 {@code null} for {@value #DEFAULT_SETTINGS}.
+	 * @throws IllegalArgumentException If the settings are unknown.
+	 */
+	public synchronized RecordingStatus start(String settings) {
+		if (recording != null) {
+			return status();
+		}
+		String name = settings == null ? DEFAULT_SETTINGS : settings;
+		Configuration configuration;
+		try {
+			configuration = Configuration.getConfiguration(name);
+		} catch (IOException | ParseException e) {
+			throw new IllegalArgumentException("Unknown Flight Recorder settings: " + name, e);
+		}
+		Recording started = new Recording(configuration);
+		started.setName(RECORDING_NAME);
+		started.setToDisk(true);
+		started.setMaxAge(maxAge);
+		started.enable(TrackerCycleEvent.class);
+		started.enable(UserTrackEvent.class);
+		started.enable(RewardScanEvent.class);
+		started.enable(RewardLookupEvent.class);
+		started.enable(NearbyAttractionsEvent.class);
+		started.start();
+		this.recording = started;
+		this.settings = name;
+		logger.info("Flight recording started with the " + name + " settings");
+		return status();
+	}
+
+	/**
+	 * Writes the events of the running recording to a new file of the directory. The recording
+	 * goes on.
+	 *
+	 * @return The file written.
+	 * @throws IllegalStateException If no recording is running.
+	 */
+	public synchronized Path dump() throws IOException {
+		if (recording == null) {
+			throw new IllegalStateException("No flight recording is running");
+		}
+		Files.createDirectories(directory);
+		Path file = directory.resolve(RECORDING_NAME + "-" + DUMP_TIMESTAMP.format(Instant.now()) + ".jfr");
+		recording.dump(file);
+		lastDump = file;
+		logger.info("Flight recording dumped to " + file);
+		return file;
+	}
+
+	/**
+	 * Stops the running recording, if any, and discards its events.
+	 */
+	public synchronized RecordingStatus stop() {
+		if (recording != null) {
+			recording.close();
+			recording = null;
+			settings = null;
+			logger.info("Flight recording stopped");
+		}
+		return status();
+	}
+
+	public synchronized RecordingStatus status() {
+		if (recording == null) {
+			return new RecordingStatus(false, null, null, 0, lastDump == null ? null : lastDump.toString());
+		}
+		return new RecordingStatus(true, settings, recording.getStartTime(), recording.getSize(),
+				lastDump == null ? null : lastDump.toString());
+	}
+
+	/**
+	 * State of the recording, as returned by the actuator endpoint.
+	 *
+	 * @param size The bytes recorded so far.
+	 * @param lastDump The file of the latest dump, if any.
+	 */
+	public record RecordingStatus(boolean running, String settings, Instant startTime, long size, String lastDump) {
+	}
+}
@@ -0,0 +1,38 @@
+package com.openclassrooms.tourguide.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a nearby attractions query, from the selection of the attractions until
+ * their DTOs are built.
+ */
+@Name("com.openclassrooms.tourguide.NearbyAttractions")
+@Label("Nearby Attractions")
+@Category({ "TourGuide", "Attractions" })
+@Description("Selection of the attractions closest to a user, with their reward points")
+@StackTrace(false)
+public class NearbyAttractionsEvent extends Event {
+
+	@Label("User ID")
+	public String userId;
+
+	@Label("Requested")
+	@Description("Attractions requested")
+	public int requested;
+
+	@Label("Candidates Examined")
+	@Description("Attractions whose distance was computed")
+	public int candidatesExamined;
+
+	@Label("Returned")
+	public int returned;
+
+	@Label("Pending Reward Points")
+	@Description("Attractions returned without their reward points, past the deadline")
+	public int pendingRewardPoints;
+}
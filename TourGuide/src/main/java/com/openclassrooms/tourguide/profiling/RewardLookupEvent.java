@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a reward points lookup, from the request to the
+ * {@code RewardPointsCache} until the points are known.
+ */
+@Name("com.openclassrooms.tourguide.RewardLookup")
+@Label("Reward Lookup")
+@Category({ "TourGuide", "Rewards" })
+@Description("Reward points lookup of an attraction for a user")
+@StackTrace(false)
+public class RewardLookupEvent extends Event {
+
+	@Label("Attraction")
+	public String attractionName;
+
+	@Label("User ID")
+	public String userId;
+
+	@Label("Reward Points")
+	public int rewardPoints;
+
+	@Label("Cache Hit")
+	@Description("The points were already cached, RewardCentral was not called")
+	public boolean cacheHit;
+
+	@Label("Failed")
+	public boolean failed;
+}
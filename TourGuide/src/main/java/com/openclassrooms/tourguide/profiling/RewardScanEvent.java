@@ -0,0 +1,35 @@
+package com.openclassrooms.tourguide.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the proximity scan of a user's new locations, which selects the
+ * attractions to reward. Only scans of at least one location are recorded.
+ */
+@Name("com.openclassrooms.tourguide.RewardScan")
+@Label("Reward Scan")
+@Category({ "TourGuide", "Rewards" })
+@Description("Matching of the new locations of a user against the attractions")
+@StackTrace(false)
+public class RewardScanEvent extends Event {
+
+	@Label("User ID")
+	public String userId;
+
+	@Label("Locations")
+	@Description("Locations scanned")
+	public int locations;
+
+	@Label("Candidates Examined")
+	@Description("Attractions found within the proximity buffer of a location")
+	public int candidatesExamined;
+
+	@Label("Candidates")
+	@Description("Attractions selected for a reward points lookup")
+	public int candidates;
+}
@@ -0,0 +1,41 @@
+package com.openclassrooms.tourguide.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of one tracking cycle of a Tracker shard, from its start until every user
+ * of the cycle is tracked.
+ */
+@Name("com.openclassrooms.tourguide.TrackerCycle")
+@Label("Tracker Cycle")
+@Category({ "TourGuide", "Tracking" })
+@Description("Tracking of the due users of a Tracker shard")
+@StackTrace(false)
+public class TrackerCycleEvent extends Event {
+
+	@Label("Shard")
+	public int shard;
+
+	@Label("Users")
+	@Description("Users tracked")
+	public int users;
+
+	@Label("Skipped")
+	@Description("Users of the shard not due for polling yet")
+	public int skipped;
+
+	@Label("Failures")
+	@Description("Users whose tracking failed")
+	public int failures;
+
+	@Label("Lag")
+	@Description("Delay between the planned start of the cycle and its actual start")
+	@Timespan(Timespan.NANOSECONDS)
+	public long lag;
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.tourguide.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the tracking of one user: the gpsUtil location lookup, then the reward
+ * calculation.
+ */
+@Name("com.openclassrooms.tourguide.UserTrack")
+@Label("User Track")
+@Category({ "TourGuide", "Tracking" })
+@Description("Location lookup and reward calculation of a user")
+@StackTrace(false)
+public class UserTrackEvent extends Event {
+
+	@Label("User ID")
+	public String userId;
+
+	@Label("Failed")
+	public boolean failed;
+}
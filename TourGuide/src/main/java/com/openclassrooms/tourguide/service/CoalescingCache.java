@@ -0,0 +1,217 @@
+package com.openclassrooms.tourguide.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, concurrent cache of the results of an asynchronous loader, in front of a slow remote
+ * call:
+ *
+ * <ul>
+ *   <li><b>In-flight deduplication</b>: entries hold the {@link CompletableFuture} of the lookup,
+ *       so concurrent misses for the same key share a single remote call.</li>
+ *   <li><b>TTL eviction</b>: an entry older than the configured time-to-live is reloaded on its
+ *       next access.</li>
+ *   <li><b>Size eviction</b>: once the cache grows past its maximum size, the oldest entries are
+ *       evicted first-in first-out, through a queue of the entries in insertion order, in constant
+ *       amortized time per insertion.</li>
+ *   <li><b>Failed lookups are not cached</b>: the entry is removed so the next call retries.</li>
+ *   <li><b>Last-known value</b>: an entry reloaded after its TTL keeps the previous value, served by
+ *       {@link #getLastKnown(Object)} to callers that cannot wait for the reload.</li>
+ * </ul>
+ *
+ * <p>Hit, miss and eviction counters are exposed for monitoring.
+ *
+ * @param <K> The type of the keys, with value semantics.
+ * @param <V> The type of the values.
+ */
+public class CoalescingCache<K, V> {
+
+	// oldest entries examined per insertion when the cache is under its maximum size
+	private static final int SWEEP_STEPS = 2;
+
+	private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+	// every entry inserted, oldest first, including the ones since reloaded or removed
+	private final Queue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+	private final Function<K, CompletableFuture<V>> loader;
+	private final int maximumSize;
+	private final long timeToLiveNanos;
+	private final LongSupplier ticker;
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	public CoalescingCache(Function<K, CompletableFuture<V>> loader, int maximumSize, long timeToLive, TimeUnit unit,
+						   LongSupplier ticker) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+		}
+		this.loader = Objects.requireNonNull(loader);
+		this.maximumSize = maximumSize;
+		this.timeToLiveNanos = unit.toNanos(timeToLive);
+		this.ticker = Objects.requireNonNull(ticker);
+	}
+
+	/**
+	 * Returns the value of the key, loading it if it is not cached yet or if the cached value has
+	 * expired.
+	 *
+	 * @return A {@link CompletableFuture} completed with the value.
+	 */
+	public CompletableFuture<V> get(K key) {
+		long now = ticker.getAsLong();
+
+		Entry<K, V> entry = entries.get(key);
+		V lastKnown = null;
+		if (entry != null) {
+			if (!entry.isExpired(now, timeToLiveNanos)) {
+				hitCount.increment();
+				return entry.value;
+			}
+			if (entries.remove(key, entry)) {
+				evictionCount.increment();
+			}
+			lastKnown = entry.lastKnown();
+		}
+
+		Entry<K, V> created = new Entry<>(key, now, new CompletableFuture<>(), lastKnown);
+		entry = entries.putIfAbsent(key, created);
+		if (entry != null) {
+			hitCount.increment();
+			return entry.value;
+		}
+
+		missCount.increment();
+		insertionOrder.offer(created);
+		load(key, created);
+		sweep(now);
+		return created.value;
+	}
+
+	/**
+	 * Runs the loader outside of any map operation, so a loader running the remote call in the
+	 * calling thread never holds a lock of the map.
+	 */
+	private void load(K key, Entry<K, V> entry) {
+		CompletableFuture<V> loading;
+		try {
+			loading = loader.apply(key);
+		} catch (RuntimeException e) {
+			loading = CompletableFuture.failedFuture(e);
+		}
+		loading.whenComplete((value, throwable) -> {
+			if (throwable != null) {
+				entries.remove(key, entry);
+				entry.value.completeExceptionally(throwable);
+			} else {
+				entry.value.complete(value);
+			}
+		});
+	}
+
+	/**
+	 * Walks the insertion order from the oldest entry: entries no longer cached are dropped from the
+	 * queue, and the oldest ones are evicted while the cache is over its maximum size. Under it,
+	 * at most {@value #SWEEP_STEPS} entries are examined and an expired entry is moved to the back
+	 * of the queue, so that it keeps its last known value until it is reloaded without holding the
+	 * rest of the queue back. Only one thread sweeps at a time, so the head it peeks is the one it
+	 * polls; the others simply carry on.
+	 */
+	private void sweep(long now) {
+		if (!evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			for (int step = 0; step < SWEEP_STEPS || entries.size() > maximumSize; step++) {
+				Entry<K, V> oldest = insertionOrder.peek();
+				if (oldest == null) {
+					return;
+				}
+				if (entries.get(oldest.key) != oldest) {
+					// reloaded, failed or evicted since it was inserted
+					insertionOrder.poll();
+				} else if (entries.size() > maximumSize) {
+					insertionOrder.poll();
+					if (entries.remove(oldest.key, oldest)) {
+						evictionCount.increment();
+					}
+				} else if (oldest.isExpired(now, timeToLiveNanos)) {
+					insertionOrder.offer(insertionOrder.poll());
+				} else {
+					return;
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the value of the key without loading it: the cached value if its lookup has
+	 * completed, otherwise the value it had before its last reload.
+	 *
+	 * @return The last known value, or {@code null} if the key was never loaded.
+	 */
+	public V getLastKnown(K key) {
+		Entry<K, V> entry = entries.get(key);
+		return entry == null ? null : entry.lastKnown();
+	}
+
+	public void invalidateAll() {
+		entries.clear();
+		insertionOrder.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	private static final class Entry<K, V> {
+		private final K key;
+		private final long createdAt;
+		private final CompletableFuture<V> value;
+		// value of the entry this one reloads, if any
+		private final V previousValue;
+
+		private Entry(K key, long createdAt, CompletableFuture<V> value, V previousValue) {
+			this.key = key;
+			this.createdAt = createdAt;
+			this.value = value;
+			this.previousValue = previousValue;
+		}
+
+		private V lastKnown() {
+			if (value.isDone() && !value.isCompletedExceptionally()) {
+				return value.join();
+			}
+			return previousValue;
+		}
+
+		private boolean isExpired(long now, long timeToLiveNanos) {
+			return now - createdAt >= timeToLiveNanos;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.openclassrooms.tourguide.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handle on a batched reward calculation started with
+ * {@link RewardsService#calculateRewards(Iterable)}.
+ *
+ * <p>The users are split into chunks. The handle exposes one aggregate future that completes once
+ * every chunk is done, along with the progress of the batch per chunk and per user.
+ */
+public class RewardBatch {
+
+	private final int totalUsers;
+	private final int totalChunks;
+	private final AtomicInteger completedUsers = new AtomicInteger();
+	private final AtomicInteger completedChunks = new AtomicInteger();
+	private final AtomicInteger failedLookups = new AtomicInteger();
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+	RewardBatch(int totalUsers, int totalChunks) {
+		this.totalUsers = totalUsers;
+		this.totalChunks = totalChunks;
+		if (totalChunks == 0) {
+			completion.complete(null);
+		}
+	}
+
+	void chunkCompleted(int users) {
+		completedUsers.addAndGet(users);
+		if (completedChunks.incrementAndGet() == totalChunks) {
+			completion.complete(null);
+		}
+	}
+
+	void lookupFailed() {
+		failedLookups.incrementAndGet();
+	}
+
+	void fail(Throwable throwable) {
+		completion.completeExceptionally(throwable);
+	}
+
+	/**
+	 * @return A {@link CompletableFuture} completed once the rewards of every user are calculated.
+	 */
+	public CompletableFuture<Void> getCompletion() {
+		return completion;
+	}
+
+	public int getTotalUsers() {
+		return totalUsers;
+	}
+
+	public int getTotalChunks() {
+		return totalChunks;
+	}
+
+	public int getCompletedUsers() {
+		return completedUsers.get();
+	}
+
+	public int getCompletedChunks() {
+		return completedChunks.get();
+	}
+
+	/**
+	 * @return The number of reward points lookups that failed. The locations of the users concerned
+	 *         are rescanned by their next reward calculation.
+	 */
+	public int getFailedLookups() {
+		return failedLookups.get();
+	}
+
+	/**
+	 * @return The fraction of chunks completed, between 0 and 1.
+	 */
+	public double getProgress() {
+		return totalChunks == 0 ? 1 : (double) completedChunks.get() / totalChunks;
+	}
+}
@@ -0,0 +1,84 @@
+package com.openclassrooms.tourguide.service;
+
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, concurrent cache of reward points keyed by (attractionId, userId).
+ *
+ * <p>{@code RewardCentral.getAttractionRewardPoints} blocks for up to a second per call and was
+ * invoked again for the same pair on every reward scan and every nearby-attractions request.
+ * This cache sits in front of it as a {@link CoalescingCache}: concurrent misses for a pair share
+ * a single remote call, entries expire after a time-to-live and are evicted past a maximum size,
+ * failed lookups are not cached, and an entry reloaded after its TTL keeps the previous points,
+ * served by {@link #getLastKnown(UUID, UUID)} to callers that cannot wait for the reload.
+ *
+ * <p>Hit, miss and eviction counters are exposed for monitoring.
+ */
+public class RewardPointsCache {
+
+	private final CoalescingCache<Key, Integer> cache;
+
+	public RewardPointsCache(BiFunction<UUID, UUID, CompletableFuture<Integer>> loader,
+							 int maximumSize, long timeToLive, TimeUnit unit) {
+		this(loader, maximumSize, timeToLive, unit, System::nanoTime);
+	}
+
+	public RewardPointsCache(BiFunction<UUID, UUID, CompletableFuture<Integer>> loader,
+							 int maximumSize, long timeToLive, TimeUnit unit, LongSupplier ticker) {
+		this.cache = new CoalescingCache<>(key -> loader.apply(key.attractionId(), key.userId()),
+				maximumSize, timeToLive, unit, ticker);
+	}
+
+	/**
+	 * Returns the reward points for the given attraction and user, loading them if they are not
+	 * cached yet or if the cached value has expired.
+	 *
+	 * @param attractionId The attraction identifier.
+	 * @param userId The user identifier.
+	 * @return A {@link CompletableFuture} completed with the reward points.
+	 */
+	public CompletableFuture<Integer> get(UUID attractionId, UUID userId) {
+		return cache.get(new Key(attractionId, userId));
+	}
+
+	/**
+	 * Returns the points of the pair without loading them: the cached value if its lookup has
+	 * completed, otherwise the value it had before its last reload.
+	 *
+	 * @param attractionId The attraction identifier.
+	 * @param userId The user identifier.
+	 * @return The last known points, or an empty {@link OptionalInt} if the pair was never loaded.
+	 */
+	public OptionalInt getLastKnown(UUID attractionId, UUID userId) {
+		Integer lastKnown = cache.getLastKnown(new Key(attractionId, userId));
+		return lastKnown == null ? OptionalInt.empty() : OptionalInt.of(lastKnown);
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	public long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+
+	private record Key(UUID attractionId, UUID userId) {
+	}
+}
@@ -1,10 +1,24 @@
 package com.openclassrooms.tourguide.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import gpsUtil.GpsUtil;
@@ -12,38 +26,117 @@ import gpsUtil.location.Attraction;
 import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.attraction.AttractionIndex;
+import com.openclassrooms.tourguide.attraction.AttractionTable;
+import com.openclassrooms.tourguide.attraction.GeoDistance;
+import com.openclassrooms.tourguide.attraction.GeoPoint;
+import com.openclassrooms.tourguide.attraction.NearestAttractions;
+import com.openclassrooms.tourguide.concurrent.DependencyLimiters;
+import com.openclassrooms.tourguide.concurrent.TourGuideExecutors;
+import com.openclassrooms.tourguide.dependency.GpsGateway;
+import com.openclassrooms.tourguide.dependency.RewardGateway;
+import com.openclassrooms.tourguide.event.EventBus;
+import com.openclassrooms.tourguide.event.RewardGranted;
+import com.openclassrooms.tourguide.profiling.RewardLookupEvent;
+import com.openclassrooms.tourguide.profiling.RewardScanEvent;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 
+/**
+ * Grants the users the rewards of the attractions they visited.
+ *
+ * <p>The duration of each user's reward calculation, the rewards granted and the duplicate rewards
+ * suppressed are exported as metrics. The service is only created by component scanning, so the
+ * metrics come from the single instance the {@link TourGuideService} uses.
+ */
 @Service
-public class RewardsService {
-    private static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+public class RewardsService implements MeterBinder {
+	private static final int REWARD_POINTS_CACHE_MAX_SIZE = 500_000;
+	private static final long REWARD_POINTS_CACHE_TTL_MINUTES = 30;
+	private static final int REWARD_BATCH_CHUNK_SIZE = 1_000;
+	private static final int REWARD_BATCH_MAX_CONCURRENT_LOOKUPS = 512;
+	// up to this many attractions, a linear scan of the AttractionTable beats the k-d tree, which is not built
+	private static final int LINEAR_SCAN_MAX_ATTRACTIONS = 256;
 
 	// proximity in miles
     private int defaultProximityBuffer = 10;
-	private int proximityBuffer = defaultProximityBuffer;
+	private volatile int proximityBuffer = defaultProximityBuffer;
+	// incremented whenever the proximity buffer changes, so users get a full rescan
+	private final AtomicInteger proximityGeneration = new AtomicInteger();
 	private int attractionProximityRange = 200;
-	private final GpsUtil gpsUtil;
-	private final RewardCentral rewardsCentral;
+	private final GpsGateway gpsUtil;
+	private final RewardGateway rewardsCentral;
 	private final List<Attraction> attractions;
-	private final ExecutorService executor = Executors.newFixedThreadPool(64);
+	private final AttractionTable attractionTable;
+	// null for tables scanned linearly
+	private final AttractionIndex attractionIndex;
+	private final ExecutorService executor;
+	private final RewardPointsCache rewardPointsCache;
+	private final EventBus eventBus;
+	// the calculation in progress of each user, until its rewards are granted
+	private final Map<UUID, CompletableFuture<Void>> calculations = new ConcurrentHashMap<>();
+	private final LongAdder grantedRewardCount = new LongAdder();
+	private final LongAdder duplicateRewardCount = new LongAdder();
+	private volatile Timer calculationTimer;
 
 	public ExecutorService getExecutor() {
 		return executor;
 	}
 
 	public RewardsService(GpsUtil gpsUtil, RewardCentral rewardCentral) {
+		this(GpsGateway.of(gpsUtil), RewardGateway.of(rewardCentral));
+	}
+
+	public RewardsService(GpsGateway gpsUtil, RewardGateway rewardCentral) {
+		this(gpsUtil, rewardCentral, TourGuideExecutors.createDefault());
+	}
+
+	private RewardsService(GpsGateway gpsUtil, RewardGateway rewardCentral, ExecutorService executor) {
+		this(gpsUtil, rewardCentral, executor, DependencyLimiters.unbounded(executor));
+	}
+
+	/**
+	 * Creates the service with an {@link EventBus} delivering on the given executor, for callers
+	 * without subscribers that block. {@code TourGuideModule} gives the bus an executor of its own.
+	 */
+	public RewardsService(GpsGateway gpsUtil, RewardGateway rewardCentral, ExecutorService executor,
+						  DependencyLimiters limiters) {
+		this(gpsUtil, rewardCentral, executor, limiters, new EventBus(executor));
+	}
+
+	/**
+	 * Creates the service on a shared executor, configured in {@code TourGuideModule}, instead of
+	 * a dedicated pool of {@value TourGuideExecutors#DEFAULT_POOL_SIZE} threads. The calls to
+	 * {@code RewardCentral} go through the {@code rewardCentral} limiter. The dependencies are the
+	 * vendor libraries or their simulators, depending on {@code tourguide.dependencies.mode}. Every
+	 * reward granted is published on the event bus.
+	 */
+	@Autowired
+	public RewardsService(GpsGateway gpsUtil, RewardGateway rewardCentral, ExecutorService executor,
+						  DependencyLimiters limiters, EventBus eventBus) {
 		this.gpsUtil = gpsUtil;
 		this.rewardsCentral = rewardCentral;
+		this.executor = executor;
         this.attractions = gpsUtil.getAttractions();
+		this.attractionTable = new AttractionTable(attractions);
+		this.attractionIndex = attractionTable.size() > LINEAR_SCAN_MAX_ATTRACTIONS
+				? new AttractionIndex(attractionTable) : null;
+		this.rewardPointsCache = new RewardPointsCache(
+				(attractionId, userId) -> limiters.rewardCentral().submit(
+						() -> rewardsCentral.getAttractionRewardPoints(attractionId, userId)),
+				REWARD_POINTS_CACHE_MAX_SIZE, REWARD_POINTS_CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+		this.eventBus = eventBus;
     }
 	
 	public void setProximityBuffer(int proximityBuffer) {
-		this.proximityBuffer = proximityBuffer;
+		if (this.proximityBuffer != proximityBuffer) {
+			this.proximityBuffer = proximityBuffer;
+			proximityGeneration.incrementAndGet();
+		}
 	}
 	
 	public void setDefaultProximityBuffer() {
-		proximityBuffer = defaultProximityBuffer;
+		setProximityBuffer(defaultProximityBuffer);
 	}
 
 	/**
@@ -57,18 +150,30 @@ public class RewardsService {
 	 * <ul>
 	 *   <li>**Asynchronous Processing**: The calculation of rewards is handled using {@link CompletableFuture},
 	 *       allowing non-blocking operations and better responsiveness in multi-user scenarios.</li>
-	 *   <li>**Thread Pool Executor**: A dedicated thread pool with a fixed number of threads ({@code 64})
-	 *       is used to efficiently manage concurrent reward calculations.</li>
+	 *   <li>**Shared Executor**: The executor configured in {@code TourGuideModule} (a fixed pool of platform
+	 *       threads or one virtual thread per task) is used to manage concurrent reward calculations.</li>
 	 *   <li>**Cached Attraction List**: The list of attractions is retrieved once and stored in memory,
 	 *       reducing redundant calls to {@code gpsUtil.getAttractions()} and improving performance.</li>
+	 *   <li>**Reward Points Cache**: Reward points are looked up through a {@link RewardPointsCache}, so a
+	 *       (attraction, user) pair only reaches {@code RewardCentral} once, even for concurrent lookups.</li>
 	 * </ul>
 	 *
 	 * <p>**Key Behavior:**
 	 * <ul>
-	 *   <li>The method checks each visited location of the user against all cached attractions.</li>
+	 *   <li>The method checks each visited location added since the previous calculation against the
+	 *       attractions within the proximity buffer. When the proximity buffer has changed since then,
+	 *       every visited location is checked again.</li>
 	 *   <li>For each attraction, it determines if the attraction is near the visited location using proximity checks.</li>
 	 *   <li>If the attraction is nearby and no reward has already been assigned for it, a new {@link UserReward}
 	 *       is created with the corresponding reward points and added to the user's rewards list.</li>
+	 *   <li>The reward points lookups are chained asynchronously after the scan, so executor threads never
+	 *       block waiting for another task of the same executor.</li>
+	 *   <li>When a lookup fails, the returned future fails and the user's locations are rescanned by the
+	 *       next calculation, so the reward is granted once {@code RewardCentral} answers again.</li>
+	 *   <li>A calculation requested while another one of the same user is in progress, such as the
+	 *       tracker's and an API call's, starts once the first one is over. The locations are claimed
+	 *       when the scan starts, so the returned future only completes once the rewards of every
+	 *       location known at the call are granted, never on an empty claim racing the first one.</li>
 	 * </ul>
 	 *
 	 * <p>The asynchronous implementation ensures that the rewards are calculated without blocking the main thread,
@@ -78,23 +183,206 @@ public class RewardsService {
 	 * @return A {@link CompletableFuture} that completes with the updated list of rewards for the user.
 	 */
 	public CompletableFuture<Void> calculateRewards(User user) {
-		List<VisitedLocation> userLocations = user.getVisitedLocations();
+		return afterCalculationInProgress(user, () -> scanAndGrant(user));
+	}
 
-		return CompletableFuture.runAsync(() -> {
-			userLocations.forEach(visitedLocation -> {
-				attractions.forEach(attraction -> {
-					boolean alreadyRewarded = user.getUserRewards().stream()
-							.anyMatch(r -> r.attraction.attractionName.equals(attraction.attractionName));
+	/**
+	 * Registers the next calculation of the user, started once the calculation in progress, if any,
+	 * is over, whether it succeeded or not: its caller sees its failure.
+	 */
+	private CompletableFuture<Void> afterCalculationInProgress(User user, Supplier<CompletableFuture<Void>> next) {
+		UUID userId = user.getUserId();
+		CompletableFuture<Void> calculation = calculations.compute(userId, (id, inProgress) -> inProgress == null
+				? next.get()
+				: inProgress.handle((v, throwable) -> null).thenCompose(v -> next.get()));
+		calculation.whenComplete((v, throwable) -> calculations.remove(userId, calculation));
+		return calculation;
+	}
 
-					if (!alreadyRewarded && nearAttraction(visitedLocation, attraction)) {
-						int rewardPoints = getRewardPoints(attraction, user);
-						user.addUserReward(new UserReward(visitedLocation, attraction, rewardPoints));
+	private CompletableFuture<Void> scanAndGrant(User user) {
+		long start = System.nanoTime();
+		CompletableFuture<Void> calculation = CompletableFuture.supplyAsync(() -> findRewardCandidates(user), executor)
+				.thenCompose(candidates -> CompletableFuture.allOf(candidates.stream()
+						.map(this::grantReward)
+						.toArray(CompletableFuture[]::new)))
+				.whenComplete((v, throwable) -> {
+					if (throwable != null) {
+						// the locations were claimed before the lookups, so they are rescanned next time
+						user.resetRewardedLocations();
 					}
 				});
-			});
-		}, executor);
+		Timer timer = calculationTimer;
+		if (timer != null) {
+			calculation.whenComplete((v, throwable) -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+		}
+		return calculation;
 	}
 
+	/**
+	 * Calculates the rewards of many users as one batch, instead of one task per user.
+	 *
+	 * <p>The users are split into chunks of {@value #REWARD_BATCH_CHUNK_SIZE}:
+	 * <ul>
+	 *   <li>The proximity matching of every chunk is CPU bound and runs in parallel on the
+	 *       {@link ForkJoinPool#commonPool() common fork-join pool}.</li>
+	 *   <li>The reward points lookups the chunks produce are then issued chunk after chunk, by windows
+	 *       of at most {@value #REWARD_BATCH_MAX_CONCURRENT_LOOKUPS} concurrent lookups, so a batch of
+	 *       100,000 users does not queue 100,000 futures at once.</li>
+	 * </ul>
+	 *
+	 * <p>A failed lookup does not fail the batch: it is counted, and the user's locations are rescanned
+	 * by the next reward calculation.
+	 *
+	 * <p>The users of a chunk count as having a calculation in progress until the chunk completes, so
+	 * a {@link #calculateRewards(User)} meanwhile waits for it. A user whose calculation is already in
+	 * progress when the chunk is matched gets a calculation of its own after it instead.
+	 *
+	 * @param users The users whose rewards are to be calculated, such as a
+	 *              {@link com.openclassrooms.tourguide.user.UserRepository UserRepository}.
+	 * @return A {@link RewardBatch} exposing the aggregate future and the progress of the batch.
+	 */
+	public RewardBatch calculateRewards(Iterable<User> users) {
+		List<List<User>> chunks = new ArrayList<>();
+		List<User> chunk = new ArrayList<>(REWARD_BATCH_CHUNK_SIZE);
+		int userCount = 0;
+		for (User user : users) {
+			userCount++;
+			chunk.add(user);
+			if (chunk.size() == REWARD_BATCH_CHUNK_SIZE) {
+				chunks.add(chunk);
+				chunk = new ArrayList<>(REWARD_BATCH_CHUNK_SIZE);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			chunks.add(chunk);
+		}
+
+		RewardBatch batch = new RewardBatch(userCount, chunks.size());
+		CompletableFuture<Void> previousChunk = CompletableFuture.completedFuture(null);
+		List<ChunkCalculation> chunkCalculations = new ArrayList<>(chunks.size());
+		for (List<User> chunkUsers : chunks) {
+			ChunkCalculation chunkCalculation = new ChunkCalculation();
+			chunkCalculations.add(chunkCalculation);
+			CompletableFuture<List<RewardCandidate>> matching = CompletableFuture.supplyAsync(
+					() -> chunkUsers.stream().flatMap(user -> chunkCalculation.match(user).stream()).toList(),
+					ForkJoinPool.commonPool());
+			previousChunk = previousChunk
+					.thenCombine(matching, (v, candidates) -> candidates)
+					.thenCompose(candidates -> grantRewardsInWindows(candidates, 0, batch))
+					.whenComplete((v, throwable) -> chunkCalculation.complete())
+					.thenRun(() -> batch.chunkCompleted(chunkUsers.size()));
+		}
+		// awaited after every chunk, as they may wait for a later chunk listing the same user
+		previousChunk = previousChunk.thenCompose(v -> CompletableFuture.allOf(chunkCalculations.stream()
+				.map(chunkCalculation -> chunkCalculation.ownCalculations(batch))
+				.toArray(CompletableFuture[]::new)));
+		previousChunk.exceptionally(throwable -> {
+			batch.fail(throwable);
+			return null;
+		});
+		return batch;
+	}
+
+	private CompletableFuture<Void> grantRewardsInWindows(List<RewardCandidate> candidates, int from, RewardBatch batch) {
+		if (from >= candidates.size()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		int to = Math.min(from + REWARD_BATCH_MAX_CONCURRENT_LOOKUPS, candidates.size());
+		return CompletableFuture.allOf(candidates.subList(from, to).stream()
+						.map(candidate -> grantReward(candidate).exceptionally(throwable -> {
+							batch.lookupFailed();
+							candidate.user().resetRewardedLocations();
+							return null;
+						}))
+						.toArray(CompletableFuture[]::new))
+				.thenCompose(v -> grantRewardsInWindows(candidates, to, batch));
+	}
+
+	private CompletableFuture<Void> grantReward(RewardCandidate candidate) {
+		User user = candidate.user();
+		return getRewardPoints(candidate.attraction(), user.getUserId())
+				.thenAccept(rewardPoints -> {
+					if (user.addUserReward(new UserReward(candidate.visitedLocation(), candidate.attractionIndex(),
+							candidate.attraction(), rewardPoints))) {
+						grantedRewardCount.increment();
+						eventBus.publish(new RewardGranted(user.getUserId(), candidate.attraction().attractionName, rewardPoints));
+					} else {
+						// granted by a concurrent calculation meanwhile
+						duplicateRewardCount.increment();
+					}
+				});
+	}
+
+	/**
+	 * Recalculates the rewards of a user from the whole location history, instead of only the
+	 * locations added since the previous calculation.
+	 *
+	 * @param user The {@link User} whose rewards are to be recalculated.
+	 * @return A {@link CompletableFuture} that completes once the rewards are updated.
+	 */
+	public CompletableFuture<Void> recalculateRewards(User user) {
+		user.resetRewardedLocations();
+		return calculateRewards(user);
+	}
+
+	/**
+	 * Collects, for every attraction the user has not been rewarded for yet, the first new visited
+	 * location that is near it. Reward points are looked up afterwards so that no thread of the
+	 * executor blocks on {@code RewardCentral} while holding the scan.
+	 *
+	 * <p>The scan works on the int IDs of the {@link AttractionTable}: each location is compared with
+	 * the squared chord of the proximity buffer, through a linear scan of the table for small tables
+	 * and through the {@link AttractionIndex} for large ones. The scratch arrays are allocated once per
+	 * user, not per location.
+	 */
+	private List<RewardCandidate> findRewardCandidates(User user) {
+		RewardScanEvent event = new RewardScanEvent();
+		event.begin();
+		int generation = proximityGeneration.get();
+		double threshold = GeoDistance.squaredChordWithin(proximityBuffer);
+		List<VisitedLocation> locations = user.claimLocationsToReward(generation);
+		if (locations.isEmpty()) {
+			return List.of();
+		}
+		int size = attractionTable.size();
+		double[] chords = new double[size];
+		int[] ids = new int[size];
+		boolean[] claimed = new boolean[size];
+		List<RewardCandidate> candidates = new ArrayList<>();
+		int duplicates = 0;
+		int examined = 0;
+		for (VisitedLocation visitedLocation : locations) {
+			int count = attractionsWithin(GeoPoint.of(visitedLocation.location), threshold, chords, ids);
+			examined += count;
+			for (int i = 0; i < count; i++) {
+				int id = ids[i];
+				if (!claimed[id] && !user.isRewarded(id)) {
+					claimed[id] = true;
+					candidates.add(new RewardCandidate(user, visitedLocation, id, attractionTable.attraction(id)));
+				} else {
+					duplicates++;
+				}
+			}
+		}
+		if (duplicates > 0) {
+			duplicateRewardCount.add(duplicates);
+		}
+		if (event.shouldCommit()) {
+			event.userId = user.getUserId().toString();
+			event.locations = locations.size();
+			event.candidatesExamined = examined;
+			event.candidates = candidates.size();
+			event.commit();
+		}
+		return candidates;
+	}
+
+	private int attractionsWithin(GeoPoint point, double threshold, double[] chords, int[] ids) {
+		if (attractionIndex == null) {
+			return attractionTable.within(point, threshold, chords, ids);
+		}
+		return attractionIndex.withinDistance(point, threshold, ids);
+	}
 
 	/**
 	 * Determines if a specified location is within proximity to a given attraction.
@@ -113,40 +401,139 @@ public class RewardsService {
 	}
 
 	/**
-	 * Checks if a given visited location is near a specific attraction.
+	 * Returns the reward points of an attraction for a user through the {@link RewardPointsCache},
+	 * so repeated lookups for the same pair do not call {@code RewardCentral} again.
 	 *
-	 * <p>As with {@link #isWithinAttractionProximity}, this method was optimized by removing
-	 * an unnecessary ternary operation. The negation of the distance comparison directly
-	 * returns the required boolean value, simplifying the logic.
+	 * @param attraction The attraction to get the points for.
+	 * @param userId The identifier of the user.
+	 * @return A {@link CompletableFuture} completed with the reward points.
+	 */
+	public CompletableFuture<Integer> getRewardPoints(Attraction attraction, UUID userId) {
+		RewardLookupEvent event = new RewardLookupEvent();
+		if (!event.isEnabled()) {
+			return rewardPointsCache.get(attraction.attractionId, userId);
+		}
+		event.begin();
+		CompletableFuture<Integer> rewardPoints = rewardPointsCache.get(attraction.attractionId, userId);
+		event.cacheHit = rewardPoints.isDone();
+		rewardPoints.whenComplete((points, throwable) -> {
+			event.attractionName = attraction.attractionName;
+			event.userId = userId.toString();
+			event.rewardPoints = points == null ? 0 : points;
+			event.failed = throwable != null;
+			event.commit();
+		});
+		return rewardPoints;
+	}
+
+	/**
+	 * Returns the reward points of an attraction for a user known by the {@link RewardPointsCache},
+	 * without looking them up.
 	 *
-	 * @param visitedLocation The visited location to check.
-	 * @param attraction The attraction to compare against.
-	 * @return {@code true} if the visited location is near the attraction, {@code false} otherwise.
+	 * @param attraction The attraction to get the points for.
+	 * @param userId The identifier of the user.
+	 * @return The last known points, or an empty {@link OptionalInt} if they were never looked up.
+	 */
+	public OptionalInt getLastKnownRewardPoints(Attraction attraction, UUID userId) {
+		return rewardPointsCache.getLastKnown(attraction.attractionId, userId);
+	}
+
+	public RewardPointsCache getRewardPointsCache() {
+		return rewardPointsCache;
+	}
+
+	public EventBus getEventBus() {
+		return eventBus;
+	}
+
+	/**
+	 * @return The number of rewards granted since the service was created.
 	 */
-	private boolean nearAttraction(VisitedLocation visitedLocation, Attraction attraction) {
-		return !(getDistance(attraction, visitedLocation.location) > proximityBuffer);
+	public long getGrantedRewardCount() {
+		return grantedRewardCount.sum();
 	}
 
+	/**
+	 * @return The number of rewards not granted because the user already had them, or because
+	 *         another location of the same calculation was near the same attraction.
+	 */
+	public long getDuplicateRewardCount() {
+		return duplicateRewardCount.sum();
+	}
 
-	private int getRewardPoints(Attraction attraction, User user) {
-		return rewardsCentral.getAttractionRewardPoints(attraction.attractionId, user.getUserId());
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		calculationTimer = Timer.builder("tourguide.rewards.calculation")
+				.description("Time to calculate the rewards of a user, reward points lookups included")
+				.publishPercentileHistogram()
+				.register(registry);
+		FunctionCounter.builder("tourguide.rewards.granted", this, RewardsService::getGrantedRewardCount)
+				.description("Rewards granted")
+				.register(registry);
+		FunctionCounter.builder("tourguide.rewards.duplicates", this, RewardsService::getDuplicateRewardCount)
+				.description("Rewards not granted because the user already had them")
+				.register(registry);
 	}
 	
 	public double getDistance(Location loc1, Location loc2) {
-        double lat1 = Math.toRadians(loc1.latitude);
-        double lon1 = Math.toRadians(loc1.longitude);
-        double lat2 = Math.toRadians(loc2.latitude);
-        double lon2 = Math.toRadians(loc2.longitude);
+		return GeoDistance.distance(loc1, loc2);
+	}
 
-        double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
-                               + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
+	/**
+	 * Selects the {@code k} attractions closest to the point, closest first, with their distances.
+	 * Each distance is computed once, by a linear scan of the {@link AttractionTable} for small
+	 * tables and by the {@link AttractionIndex} for large ones.
+	 */
+	public NearestAttractions getNearestAttractions(GeoPoint point, int k) {
+		if (attractionIndex == null) {
+			return attractionTable.nearest(point, k, new double[attractionTable.size()]);
+		}
+		return attractionIndex.nearest(point, k);
+	}
 
-        double nauticalMiles = 60 * Math.toDegrees(angle);
-        double statuteMiles = STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
-        return statuteMiles;
+	public AttractionTable getAttractionTable() {
+		return attractionTable;
 	}
 
 	public List<Attraction> getAttractions() {
 		return attractions;
 	}
+
+	/**
+	 * The calculation of the users of a batch chunk, registered as in progress for each user whose
+	 * calculation is not already.
+	 */
+	private final class ChunkCalculation {
+		private final CompletableFuture<Void> granted = new CompletableFuture<>();
+		private final List<UUID> registered = new ArrayList<>();
+		private final List<CompletableFuture<Void>> own = new ArrayList<>();
+
+		private List<RewardCandidate> match(User user) {
+			if (calculations.putIfAbsent(user.getUserId(), granted) != null) {
+				own.add(calculateRewards(user));
+				return List.of();
+			}
+			registered.add(user.getUserId());
+			return findRewardCandidates(user);
+		}
+
+		private CompletableFuture<Void> ownCalculations(RewardBatch batch) {
+			return CompletableFuture.allOf(own.stream()
+					.map(calculation -> calculation.exceptionally(throwable -> {
+						batch.lookupFailed();
+						return null;
+					}))
+					.toArray(CompletableFuture[]::new));
+		}
+
+		private void complete() {
+			for (UUID userId : registered) {
+				calculations.remove(userId, granted);
+			}
+			granted.complete(null);
+		}
+	}
+
+	private record RewardCandidate(User user, VisitedLocation visitedLocation, int attractionIndex, Attraction attraction) {
+	}
 }
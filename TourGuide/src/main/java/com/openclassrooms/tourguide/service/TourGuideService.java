@@ -1,20 +1,42 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.attraction.AttractionTable;
+import com.openclassrooms.tourguide.attraction.GeoPoint;
+import com.openclassrooms.tourguide.attraction.NearestAttractions;
+import com.openclassrooms.tourguide.concurrent.DependencyLimiters;
+import com.openclassrooms.tourguide.concurrent.TourGuideExecutors;
+import com.openclassrooms.tourguide.dependency.GpsGateway;
+import com.openclassrooms.tourguide.dependency.TripPricerGateway;
+import com.openclassrooms.tourguide.event.EventBus;
+import com.openclassrooms.tourguide.event.LocationTracked;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.helper.InternalUserSettings;
+import com.openclassrooms.tourguide.helper.InternalUserSnapshot;
 import com.openclassrooms.tourguide.pojo.AttractionDTO;
+import com.openclassrooms.tourguide.profiling.NearbyAttractionsEvent;
+import com.openclassrooms.tourguide.profiling.UserTrackEvent;
 import com.openclassrooms.tourguide.tracker.Tracker;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
+import com.openclassrooms.tourguide.user.ShardedUserRepository;
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserRepository;
 import com.openclassrooms.tourguide.user.UserReward;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -28,13 +50,22 @@ import tripPricer.Provider;
 import tripPricer.TripPricer;
 
 @Service
-public class TourGuideService {
+public class TourGuideService implements MeterBinder {
 	private Logger logger = LoggerFactory.getLogger(TourGuideService.class);
-	private final ExecutorService executor = Executors.newFixedThreadPool(64);
-	private final GpsUtil gpsUtil;
+	private final ExecutorService executor;
+	private final DependencyLimiters limiters;
+	private final GpsGateway gpsUtil;
 	private final RewardsService rewardsService;
-	private final TripPricer tripPricer = new TripPricer();
-	private final RewardCentral rewardCentral;
+	private final TripPricerGateway tripPricer;
+	private final UserRepository userRepository;
+	private final InternalUserSettings internalUserSettings;
+	private final TripDealCache tripDealCache;
+	private final EventBus eventBus;
+	public static final int DEFAULT_NEARBY_ATTRACTIONS = 5;
+	private static final int TRIP_DEAL_CACHE_MAX_SIZE = 100_000;
+	private static final long TRIP_DEAL_CACHE_TTL_MINUTES = 10;
+	// reward points the trip deals are priced with are rounded down to a multiple of this
+	private static final int TRIP_DEAL_REWARD_POINTS_BUCKET = 100;
 	public final Tracker tracker;
 	boolean testMode = true;
 
@@ -43,9 +74,55 @@ public class TourGuideService {
 	}
 
 	public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService, RewardCentral rewardCentral) {
+		this(GpsGateway.of(gpsUtil), rewardsService, TripPricerGateway.of(new TripPricer()));
+	}
+
+	public TourGuideService(GpsGateway gpsUtil, RewardsService rewardsService, TripPricerGateway tripPricer) {
+		this(gpsUtil, rewardsService, tripPricer, TourGuideExecutors.createDefault());
+	}
+
+	private TourGuideService(GpsGateway gpsUtil, RewardsService rewardsService, TripPricerGateway tripPricer,
+							 ExecutorService executor) {
+		this(gpsUtil, rewardsService, tripPricer, executor, DependencyLimiters.unbounded(executor),
+				TrackerSettings.defaults(), new ShardedUserRepository());
+	}
+
+	/**
+	 * Creates the service on the executor shared with the {@link RewardsService}, configured in
+	 * {@code TourGuideModule}, instead of a dedicated pool of
+	 * {@value TourGuideExecutors#DEFAULT_POOL_SIZE} threads. The calls to gpsUtil and TripPricer go
+	 * through their {@link DependencyLimiters}, and the {@link Tracker} is scheduled with the given
+	 * {@link TrackerSettings}. The dependencies are the vendor libraries or their simulators,
+	 * depending on {@code tourguide.dependencies.mode}. The users are stored in the given
+	 * {@link UserRepository}, shared with the {@link Tracker}.
+	 */
+	public TourGuideService(GpsGateway gpsUtil, RewardsService rewardsService, TripPricerGateway tripPricer,
+							ExecutorService executor, DependencyLimiters limiters, TrackerSettings trackerSettings,
+							UserRepository userRepository) {
+		this(gpsUtil, rewardsService, tripPricer, executor, limiters, trackerSettings, userRepository,
+				InternalUserSettings.defaults());
+	}
+
+	/**
+	 * Creates the service as above, generating the internal test users with the given
+	 * {@link InternalUserSettings}.
+	 */
+	@Autowired
+	public TourGuideService(GpsGateway gpsUtil, RewardsService rewardsService, TripPricerGateway tripPricer,
+							ExecutorService executor, DependencyLimiters limiters, TrackerSettings trackerSettings,
+							UserRepository userRepository, InternalUserSettings internalUserSettings) {
+		this.executor = executor;
+		this.limiters = limiters;
 		this.gpsUtil = gpsUtil;
 		this.rewardsService = rewardsService;
-        this.rewardCentral = rewardCentral;
+		this.eventBus = rewardsService.getEventBus();
+		this.tripPricer = tripPricer;
+		this.userRepository = userRepository;
+		this.internalUserSettings = internalUserSettings;
+		this.tripDealCache = new TripDealCache(
+				query -> limiters.tripPricer().submit(() -> List.copyOf(tripPricer.getPrice(tripPricerApiKey,
+						query.userId(), query.adults(), query.children(), query.tripDuration(), query.rewardPoints()))),
+				TRIP_DEAL_REWARD_POINTS_BUCKET, TRIP_DEAL_CACHE_MAX_SIZE, TRIP_DEAL_CACHE_TTL_MINUTES, TimeUnit.MINUTES);
 
         Locale.setDefault(Locale.US);
 
@@ -55,7 +132,7 @@ public class TourGuideService {
 			initializeInternalUsers();
 			logger.debug("Finished initializing users");
 		}
-		tracker = new Tracker(this);
+		tracker = new Tracker(this, trackerSettings);
 		addShutDownHook();
 	}
 
@@ -87,33 +164,68 @@ public class TourGuideService {
 	 *         or the result of tracking the user's location asynchronously.
 	 */
 	public CompletableFuture<VisitedLocation> getUserLocation(User user) {
-		if (user.getVisitedLocations().isEmpty())
+		VisitedLocation lastVisitedLocation = user.getLastVisitedLocation();
+		if (lastVisitedLocation == null)
 			return trackUserLocation(user);
 		else
-			return CompletableFuture.completedFuture(user.getLastVisitedLocation());
+			return CompletableFuture.completedFuture(lastVisitedLocation);
 	}
 
 	public User getUser(String userName) {
-		return internalUserMap.get(userName);
+		return userRepository.findByUserName(userName);
 	}
 
+	/**
+	 * @return A copy of every user. Prefer iterating the {@link #getUserRepository() repository},
+	 *         which does not copy the users.
+	 */
 	public List<User> getAllUsers() {
-		return internalUserMap.values().stream().collect(Collectors.toList());
+		return userRepository.findAll();
+	}
+
+	/**
+	 * Exports the metrics of the {@link Tracker}, which is created by the service rather than by the
+	 * context.
+	 */
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		tracker.bindTo(registry);
+	}
+
+	public UserRepository getUserRepository() {
+		return userRepository;
 	}
 
 	public void addUser(User user) {
-		if (!internalUserMap.containsKey(user.getUserName())) {
-			internalUserMap.put(user.getUserName(), user);
-		}
+		userRepository.add(user);
 	}
 
 	public List<Provider> getTripDeals(User user) {
-		int cumulatativeRewardPoints = user.getUserRewards().stream().mapToInt(i -> i.getRewardPoints()).sum();
-		List<Provider> providers = tripPricer.getPrice(tripPricerApiKey, user.getUserId(),
-				user.getUserPreferences().getNumberOfAdults(), user.getUserPreferences().getNumberOfChildren(),
-				user.getUserPreferences().getTripDuration(), cumulatativeRewardPoints);
-		user.setTripDeals(providers);
-		return providers;
+		return getTripDealsAsync(user).join();
+	}
+
+	/**
+	 * Gets the trip deals of the user through the {@link TripDealCache}, and records them on the
+	 * user.
+	 *
+	 * <p>The deals are keyed by the user, its trip preferences and its running total of reward
+	 * points, rounded down to a bucket of {@value #TRIP_DEAL_REWARD_POINTS_BUCKET} points. Concurrent
+	 * identical requests share a single {@code TripPricer} call, which goes through the
+	 * {@code tripPricer} {@link DependencyLimiters limiter}, and repeated requests are served from
+	 * memory for {@value #TRIP_DEAL_CACHE_TTL_MINUTES} minutes.
+	 *
+	 * @param user The user to price trips for.
+	 * @return A {@link CompletableFuture} completed with the deals.
+	 */
+	public CompletableFuture<List<Provider>> getTripDealsAsync(User user) {
+		return tripDealCache.get(user).thenApply(providers -> {
+			user.setTripDeals(providers);
+			return providers;
+		});
+	}
+
+	public TripDealCache getTripDealCache() {
+		return tripDealCache;
 	}
 
 	/**
@@ -137,10 +249,15 @@ public class TourGuideService {
 	 * <ul>
 	 *   <li>The location retrieval and reward calculation processes are executed on a custom
 	 *       {@code ExecutorService} to avoid blocking the main thread.</li>
+	 *   <li>The location retrieval goes through the {@code gpsUtil} {@link DependencyLimiters limiter}, so
+	 *       tracking every user at once queues a bounded number of tasks on the executor.</li>
 	 *   <li>The {@link CompletableFuture#thenComposeAsync} method is used to chain the asynchronous
 	 *       reward calculation to the location retrieval, ensuring proper sequencing of tasks.</li>
 	 *   <li>The {@link CompletableFuture#thenApplyAsync} method is used to transform the final
 	 *       result, ensuring the {@link VisitedLocation} is returned after all tasks are complete.</li>
+	 *   <li>The new location is published as a {@link LocationTracked} event on the {@link EventBus}
+	 *       of the {@link RewardsService}, before the rewards are calculated.</li>
+	 *   <li>While a flight recording runs, the whole tracking is recorded as a {@link UserTrackEvent}.</li>
 	 * </ul>
 	 *
 	 * @param user The user whose location is being tracked.
@@ -148,36 +265,130 @@ public class TourGuideService {
 	 *         all processing (location tracking and reward calculation) is complete.
 	 */
 	public CompletableFuture<VisitedLocation> trackUserLocation(User user) {
-		return CompletableFuture.supplyAsync(() -> gpsUtil.getUserLocation(user.getUserId()), executor)
+		CompletableFuture<VisitedLocation> tracking = limiters.gpsUtil().submit(() -> gpsUtil.getUserLocation(user.getUserId()))
 				.thenComposeAsync(visitedLocation -> {
 					user.addToVisitedLocations(visitedLocation);
+					eventBus.publish(LocationTracked.of(visitedLocation));
 					return rewardsService.calculateRewards(user)
 							.thenApplyAsync(v -> visitedLocation, executor);
 				}, executor);
+		UserTrackEvent event = new UserTrackEvent();
+		if (event.isEnabled()) {
+			event.begin();
+			tracking.whenComplete((visitedLocation, throwable) -> {
+				event.userId = user.getUserId().toString();
+				event.failed = throwable != null;
+				event.commit();
+			});
+		}
+		return tracking;
 	}
 
 	/**
 	 * Retrieves the five closest tourist attractions to the user's visited location.
 	 *
+	 * @see #getNearByAttractions(VisitedLocation, int, Duration)
+	 */
+	public List<AttractionDTO> getNearByAttractions(VisitedLocation visitedLocation) {
+		return getNearByAttractions(visitedLocation, DEFAULT_NEARBY_ATTRACTIONS);
+	}
+
+	/**
+	 * Retrieves the {@code count} closest tourist attractions to the user's visited location,
+	 * waiting for every reward points lookup.
+	 *
+	 * @see #getNearByAttractions(VisitedLocation, int, Duration)
+	 */
+	public List<AttractionDTO> getNearByAttractions(VisitedLocation visitedLocation, int count) {
+		return getNearByAttractions(visitedLocation, count, null).join();
+	}
+
+	/**
+	 * Retrieves the {@code count} closest tourist attractions to the user's visited location.
+	 *
 	 * This method returns a list of {@link AttractionDTO} objects, each containing
 	 * the attraction's name, coordinates, the user's location, the distance in miles
 	 * from the user, and reward points for visiting the attraction.
 	 *
+	 * <p>Changes made:
+	 * <ul>
+	 *   <li>The attractions are selected from the {@link AttractionTable} cached by the
+	 *       {@link RewardsService} with a bounded heap of {@code count} entries, instead of sorting
+	 *       every attraction with a comparator recomputing both distances on each comparison.</li>
+	 *   <li>Each distance is computed once, during the selection, and reused for the DTO.</li>
+	 *   <li>The attraction and user locations are shared instances instead of two new
+	 *       {@link Location}s per result.</li>
+	 *   <li>The reward points of every selected attraction are looked up concurrently on the service
+	 *       executor, so the latency is the one of the slowest lookup instead of their sum.</li>
+	 *   <li>Past the {@code deadline}, the lookups still running are not waited for: their DTO carries
+	 *       the last known reward points, or 0, and is flagged {@link AttractionDTO#isRewardPointPending()
+	 *       pending}. A failed lookup is reported the same way instead of failing the request.</li>
+	 *   <li>While a flight recording runs, the query is recorded as a {@link NearbyAttractionsEvent}.</li>
+	 * </ul>
+	 *
 	 * @param visitedLocation the user's current location.
-	 * @return a list of the five closest {@link AttractionDTO} objects.
+	 * @param count the number of attractions to return.
+	 * @param deadline the maximum time to wait for the reward points, or {@code null} to wait for all of them.
+	 * @return a {@link CompletableFuture} of the closest {@link AttractionDTO} objects, closest first.
 	 */
-	public List<AttractionDTO> getNearByAttractions(VisitedLocation visitedLocation) {
-		return gpsUtil.getAttractions().stream()
-				.sorted(Comparator.comparingDouble(location -> rewardsService.getDistance(location, visitedLocation.location)))
-				.limit(5)
-				.map(attraction -> new AttractionDTO(
+	public CompletableFuture<List<AttractionDTO>> getNearByAttractions(VisitedLocation visitedLocation, int count,
+																	   Duration deadline) {
+		NearbyAttractionsEvent event = new NearbyAttractionsEvent();
+		event.begin();
+		AttractionTable attractionTable = rewardsService.getAttractionTable();
+		NearestAttractions nearest = rewardsService.getNearestAttractions(GeoPoint.of(visitedLocation.location), count);
+		CompletableFuture<?>[] rewardPoints = new CompletableFuture<?>[nearest.size()];
+		for (int i = 0; i < nearest.size(); i++) {
+			rewardPoints[i] = rewardsService.getRewardPoints(attractionTable.attraction(nearest.id(i)), visitedLocation.userId);
+		}
+
+		CompletableFuture<Void> lookups = CompletableFuture.allOf(rewardPoints).exceptionally(throwable -> null);
+		if (deadline != null) {
+			lookups = lookups.completeOnTimeout(null, deadline.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		return lookups.thenApply(v -> {
+			List<AttractionDTO> attractions = new ArrayList<>(nearest.size());
+			int pendingCount = 0;
+			for (int i = 0; i < nearest.size(); i++) {
+				Attraction attraction = attractionTable.attraction(nearest.id(i));
+				CompletableFuture<?> points = rewardPoints[i];
+				boolean pending = !points.isDone() || points.isCompletedExceptionally();
+				if (pending) {
+					pendingCount++;
+				}
+				int rewardPoint = pending
+						? rewardsService.getLastKnownRewardPoints(attraction, visitedLocation.userId).orElse(0)
+						: (Integer) points.join();
+				attractions.add(new AttractionDTO(
 						attraction.attractionName,
-						new Location(attraction.latitude, attraction.longitude),
-						new Location(visitedLocation.location.latitude, visitedLocation.location.longitude),
-						rewardsService.getDistance(new Location(attraction.latitude, attraction.longitude), visitedLocation.location),
-						rewardCentral.getAttractionRewardPoints(attraction.attractionId, visitedLocation.userId)
-				))
-				.toList();
+						attractionTable.location(nearest.id(i)),
+						visitedLocation.location,
+						nearest.distance(i),
+						rewardPoint,
+						pending));
+			}
+			if (event.shouldCommit()) {
+				event.userId = visitedLocation.userId.toString();
+				event.requested = count;
+				event.candidatesExamined = nearest.getExaminedCount();
+				event.returned = attractions.size();
+				event.pendingRewardPoints = pendingCount;
+				event.commit();
+			}
+			return attractions;
+		});
+	}
+
+	/**
+	 * Returns the distance in miles from the location to the nearest attraction, used by the
+	 * Tracker to decide how soon a user can reach an attraction.
+	 *
+	 * @param location The location to measure from.
+	 * @return The distance to the nearest attraction, or {@link Double#POSITIVE_INFINITY} if there is none.
+	 */
+	public double getNearestAttractionDistance(Location location) {
+		NearestAttractions nearest = rewardsService.getNearestAttractions(GeoPoint.of(location), 1);
+		return nearest.size() == 0 ? Double.POSITIVE_INFINITY : nearest.distance(0);
 	}
 
 	private void addShutDownHook() {
@@ -195,44 +406,56 @@ public class TourGuideService {
 	 **********************************************************************************/
 	private static final String tripPricerApiKey = "test-server-api-key";
 	// Database connection will be used for external users, but for testing purposes
-	// internal users are provided and stored in memory
-	private final Map<String, User> internalUserMap = new HashMap<>();
+	// internal users are provided and stored in the in-memory user repository
 
+	/**
+	 * Adds the internal test users to the repository, unless it already holds users. The users are
+	 * read from the snapshot of the {@link InternalUserSettings} when it matches them, generated in
+	 * parallel from their seed otherwise, the locations being dated from the start of the current
+	 * day, to which the snapshot is shifted too. The time taken is logged.
+	 */
 	private void initializeInternalUsers() {
-		IntStream.range(0, InternalTestHelper.getInternalUserNumber()).forEach(i -> {
-			String userName = "internalUser" + i;
-			String phone = "000";
-			String email = userName + "@tourGuide.com";
-			User user = new User(UUID.randomUUID(), userName, phone, email);
-			generateUserLocationHistory(user);
-
-			internalUserMap.put(userName, user);
-		});
-		logger.debug("Created " + InternalTestHelper.getInternalUserNumber() + " internal test users.");
-	}
-
-	private void generateUserLocationHistory(User user) {
-		IntStream.range(0, 3).forEach(i -> {
-			user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
-					new Location(generateRandomLatitude(), generateRandomLongitude()), getRandomTime()));
-		});
-	}
-
-	private double generateRandomLongitude() {
-		double leftLimit = -180;
-		double rightLimit = 180;
-		return leftLimit + new Random().nextDouble() * (rightLimit - leftLimit);
+		if (userRepository.size() > 0) {
+			logger.debug("Reusing the " + userRepository.size() + " users of the user repository.");
+			return;
+		}
+		long start = System.nanoTime();
+		int userCount = InternalTestHelper.getInternalUserNumber();
+		long seed = internalUserSettings.seed();
+		Path snapshot = internalUserSettings.snapshot();
+		Instant referenceTime = Instant.now().truncatedTo(ChronoUnit.DAYS);
+		User[] users = snapshot == null ? null : readSnapshot(snapshot, seed, userCount, referenceTime);
+		boolean loaded = users != null;
+		if (!loaded) {
+			users = new InternalUserGenerator(seed, referenceTime).generate(userCount);
+			if (snapshot != null) {
+				writeSnapshot(snapshot, seed, referenceTime, users);
+			}
+		}
+		userRepository.addAll(Arrays.asList(users));
+		logger.info((loaded ? "Loaded " : "Generated ") + userCount + " internal test users in "
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
 	}
 
-	private double generateRandomLatitude() {
-		double leftLimit = -85.05112878;
-		double rightLimit = 85.05112878;
-		return leftLimit + new Random().nextDouble() * (rightLimit - leftLimit);
+	private User[] readSnapshot(Path snapshot, long seed, int userCount, Instant referenceTime) {
+		try {
+			User[] users = InternalUserSnapshot.read(snapshot, seed, userCount, referenceTime);
+			if (users == null && Files.exists(snapshot)) {
+				logger.info("Ignoring " + snapshot + ", written for other internal users settings.");
+			}
+			return users;
+		} catch (IOException e) {
+			logger.warn("Cannot read the internal users snapshot " + snapshot + ", generating the users.", e);
+			return null;
+		}
 	}
 
-	private Date getRandomTime() {
-		LocalDateTime localDateTime = LocalDateTime.now().minusDays(new Random().nextInt(30));
-		return Date.from(localDateTime.toInstant(ZoneOffset.UTC));
+	private void writeSnapshot(Path snapshot, long seed, Instant referenceTime, User[] users) {
+		try {
+			InternalUserSnapshot.write(snapshot, seed, referenceTime, users);
+		} catch (IOException e) {
+			logger.warn("Cannot write the internal users snapshot " + snapshot + ".", e);
+		}
 	}
 
 }
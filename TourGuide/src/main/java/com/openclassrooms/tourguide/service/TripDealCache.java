@@ -0,0 +1,88 @@
+package com.openclassrooms.tourguide.service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import tripPricer.Provider;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
+
+/**
+ * Bounded, concurrent cache of the trip deals of {@code TripPricer}, keyed by the {@link Query} a
+ * user makes: its ID, its trip preferences and its reward points, rounded down to a bucket.
+ *
+ * <p>{@code TripPricer.getPrice} blocks the calling thread and was invoked on every
+ * {@code /getTripDeals} request. Through the {@link CoalescingCache}, concurrent identical queries
+ * share a single call, and repeated queries are served from memory until the deals expire. A user
+ * earning a few points does not change its query until it reaches the next bucket; the deals are
+ * priced with the points of the bucket, so the deals of a query never depend on which request
+ * loaded them.
+ */
+public class TripDealCache {
+
+	private final CoalescingCache<Query, List<Provider>> cache;
+	private final int rewardPointsBucket;
+
+	public TripDealCache(Function<Query, CompletableFuture<List<Provider>>> loader, int rewardPointsBucket,
+						 int maximumSize, long timeToLive, TimeUnit unit) {
+		this(loader, rewardPointsBucket, maximumSize, timeToLive, unit, System::nanoTime);
+	}
+
+	public TripDealCache(Function<Query, CompletableFuture<List<Provider>>> loader, int rewardPointsBucket,
+						 int maximumSize, long timeToLive, TimeUnit unit, LongSupplier ticker) {
+		if (rewardPointsBucket <= 0) {
+			throw new IllegalArgumentException("rewardPointsBucket must be positive: " + rewardPointsBucket);
+		}
+		this.cache = new CoalescingCache<>(loader, maximumSize, timeToLive, unit, ticker);
+		this.rewardPointsBucket = rewardPointsBucket;
+	}
+
+	/**
+	 * Returns the trip deals of the user's current query, loading them if they are not cached yet or
+	 * if the cached ones have expired.
+	 *
+	 * @return A {@link CompletableFuture} completed with the deals.
+	 */
+	public CompletableFuture<List<Provider>> get(User user) {
+		return cache.get(queryOf(user));
+	}
+
+	public Query queryOf(User user) {
+		UserPreferences preferences = user.getUserPreferences();
+		int rewardPoints = user.getRewardPointsTotal();
+		return new Query(user.getUserId(), preferences.getNumberOfAdults(), preferences.getNumberOfChildren(),
+				preferences.getTripDuration(), rewardPoints - rewardPoints % rewardPointsBucket);
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	public long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+
+	/**
+	 * Parameters of a {@code TripPricer.getPrice} call.
+	 *
+	 * @param rewardPoints The reward points of the user, rounded down to the bucket.
+	 */
+	public record Query(UUID userId, int adults, int children, int tripDuration, int rewardPoints) {
+	}
+}
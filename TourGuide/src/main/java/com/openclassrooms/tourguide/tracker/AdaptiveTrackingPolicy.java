@@ -0,0 +1,96 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.attraction.GeoDistance;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Decides how long the {@link Tracker} can wait before polling a user again, from the user's
+ * latest location and, for users far from any attraction, the last ten
+ * locations before it; the rest of the history is never read:
+ *
+ * <ul>
+ *   <li>a user within {@code nearAttractionMiles} of an attraction is polled at the minimum interval,</li>
+ *   <li>a user farther away is polled no sooner than the time needed to get near the nearest
+ *       attraction at {@code travelSpeedMph},</li>
+ *   <li>a stationary user is polled less and less often: the interval grows to half of the time
+ *       spent without moving.</li>
+ * </ul>
+ *
+ * <p>The interval is always kept between the configured minimum and maximum, so a user is never
+ * left unpolled for longer than {@code maxInterval}.
+ */
+public class AdaptiveTrackingPolicy {
+
+	/** How many of the latest locations are looked at to detect movement. */
+	private static final int RECENT_LOCATIONS = 10;
+
+	private final AdaptiveTrackingSettings settings;
+	private final ToDoubleFunction<Location> nearestAttractionDistance;
+
+	/**
+	 * @param settings The bounds and thresholds of the policy.
+	 * @param nearestAttractionDistance Gives the distance in miles from a location to the nearest attraction.
+	 */
+	public AdaptiveTrackingPolicy(AdaptiveTrackingSettings settings, ToDoubleFunction<Location> nearestAttractionDistance) {
+		this.settings = settings;
+		this.nearestAttractionDistance = nearestAttractionDistance;
+	}
+
+	public boolean isEnabled() {
+		return settings.enabled();
+	}
+
+	/**
+	 * @param user The user that was just polled.
+	 * @return The time to wait before polling the user again, {@link Duration#ZERO} when disabled.
+	 */
+	public Duration nextInterval(User user) {
+		if (!settings.enabled()) {
+			return Duration.ZERO;
+		}
+		// the latest location alone decides for users near an attraction, the whole history is never read
+		VisitedLocation latest = user.getLastVisitedLocation();
+		if (latest == null) {
+			return settings.minInterval();
+		}
+
+		double attractionMiles = nearestAttractionDistance.applyAsDouble(latest.location);
+		if (attractionMiles <= settings.nearAttractionMiles()) {
+			return settings.minInterval();
+		}
+		double hoursToReach = (attractionMiles - settings.nearAttractionMiles()) / settings.travelSpeedMph();
+		long interval = (long) (hoursToReach * Duration.ofHours(1).toMillis());
+
+		long stationaryMillis = stationaryMillis(user.getRecentVisitedLocations(RECENT_LOCATIONS + 1));
+		interval = Math.max(interval, stationaryMillis / 2);
+
+		return Duration.ofMillis(Math.min(Math.max(interval, settings.minInterval().toMillis()),
+				settings.maxInterval().toMillis()));
+	}
+
+	/**
+	 * Time between the latest location and the most recent one that was farther than
+	 * {@code stationaryMiles} from it, 0 if the user moved since the previous location.
+	 */
+	private long stationaryMillis(List<VisitedLocation> recent) {
+		if (recent.isEmpty()) {
+			return 0;
+		}
+		VisitedLocation latest = recent.get(recent.size() - 1);
+		VisitedLocation since = latest;
+		for (int i = recent.size() - 2; i >= 0; i--) {
+			VisitedLocation previous = recent.get(i);
+			if (GeoDistance.distance(previous.location, latest.location) > settings.stationaryMiles()) {
+				break;
+			}
+			since = previous;
+		}
+		return Math.max(0, latest.timeVisited.getTime() - since.timeVisited.getTime());
+	}
+}
@@ -0,0 +1,34 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link AdaptiveTrackingPolicy}, read from {@code tourguide.tracker.adaptive.*}.
+ *
+ * @param enabled Whether users are polled at an adaptive interval instead of every cycle.
+ * @param minInterval Interval for users near an attraction. It cannot be shorter than the
+ *                    polling interval of the Tracker, which is the time between two cycles.
+ * @param maxInterval Longest interval between two polls of a user.
+ * @param nearAttractionMiles Distance to the nearest attraction under which a user is polled at
+ *                            the minimum interval.
+ * @param stationaryMiles Movement under which a user is considered stationary.
+ * @param travelSpeedMph Assumed top travel speed, used to estimate how soon a user can reach an
+ *                       attraction.
+ */
+public record AdaptiveTrackingSettings(boolean enabled, Duration minInterval, Duration maxInterval,
+									   double nearAttractionMiles, double stationaryMiles, double travelSpeedMph) {
+
+	public AdaptiveTrackingSettings {
+		if (minInterval.isNegative() || maxInterval.compareTo(minInterval) < 0) {
+			throw new IllegalArgumentException("Expected 0 <= minInterval <= maxInterval, got "
+					+ minInterval + " and " + maxInterval);
+		}
+		if (travelSpeedMph <= 0) {
+			throw new IllegalArgumentException("travelSpeedMph must be positive: " + travelSpeedMph);
+		}
+	}
+
+	public static AdaptiveTrackingSettings disabled() {
+		return new AdaptiveTrackingSettings(false, Duration.ZERO, Duration.ZERO, 0, 0, 1);
+	}
+}
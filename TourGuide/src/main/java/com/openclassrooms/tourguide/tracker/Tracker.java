@@ -1,60 +1,295 @@
 package com.openclassrooms.tourguide.tracker;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
-import org.apache.commons.lang3.time.StopWatch;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.openclassrooms.tourguide.profiling.TrackerCycleEvent;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserRepository;
+
+/**
+ * Periodically tracks the location of every user.
+ *
+ * <p>Changes made:
+ * <ul>
+ *   <li>The users are split into {@link TrackerSettings#shardCount() shards}: a shard of the
+ *       Tracker walks the shards of the {@link UserRepository} whose index is congruent to its own,
+ *       through their live views, instead of copying and filtering every user on each cycle. The
+ *       shards start evenly spread across the polling interval, so the tracking load is smoothed
+ *       instead of firing every user at once.</li>
+ *   <li>Within a cycle, the users of the shard are submitted by slices spread evenly across the
+ *       polling interval, one slice every {@value #PACING_TICK_MILLIS} ms at most, so each user keeps
+ *       its offset in the interval instead of the whole shard hitting gpsUtil in one burst. The
+ *       slices are submitted from the shared executor: when a saturated limiter runs a call on the
+ *       submitting thread, it blocks an executor thread, never a scheduler thread.</li>
+ *   <li>A shard is rescheduled only once every user of its cycle is tracked, so cycles of the same
+ *       shard never overlap. A late cycle is followed by the next one immediately instead of
+ *       piling up work.</li>
+ *   <li>Each cycle is reported as a {@link TrackerCycle} (duration, lag, failures), logged and
+ *       passed to the registered listeners. The durations, lags and failures are also exported as
+ *       metrics, and recorded as a {@link TrackerCycleEvent} while a flight recording runs.</li>
+ *   <li>The polling interval, shard count and jitter come from {@link TrackerSettings} instead of a
+ *       static constant.</li>
+ *   <li>When enabled, the {@link AdaptiveTrackingPolicy} decides per user when the next poll is due,
+ *       so stationary users and users far from any attraction are skipped by most cycles.</li>
+ * </ul>
+ */
+public class Tracker implements MeterBinder {
+	// shortest time between two slices of a cycle
+	private static final long PACING_TICK_MILLIS = 100;
 
-public class Tracker extends Thread {
 	private Logger logger = LoggerFactory.getLogger(Tracker.class);
-	private static final long trackingPollingInterval = TimeUnit.MINUTES.toSeconds(5);
-	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 	private final TourGuideService tourGuideService;
-	private boolean stop = false;
+	private final UserRepository userRepository;
+	private final TrackerSettings settings;
+	private final ScheduledExecutorService scheduler;
+	private final ExecutorService executor;
+	private final AdaptiveTrackingPolicy trackingPolicy;
+	// next time each user is due for polling, in System.nanoTime() terms, when the policy is enabled
+	private final Map<UUID, Long> nextPollTimes = new ConcurrentHashMap<>();
+	private final List<Consumer<TrackerCycle>> cycleListeners = new CopyOnWriteArrayList<>();
+	private final AtomicLong completedCycles = new AtomicLong();
+	private final AtomicLong failureCount = new AtomicLong();
+	private final AtomicLong trackedCount = new AtomicLong();
+	private volatile TrackerCycle lastCycle;
+	private volatile Timer cycleTimer;
+	private volatile Timer lagTimer;
+	private volatile boolean stop = false;
 
 	public Tracker(TourGuideService tourGuideService) {
+		this(tourGuideService, TrackerSettings.defaults());
+	}
+
+	public Tracker(TourGuideService tourGuideService, TrackerSettings settings) {
 		this.tourGuideService = tourGuideService;
+		this.userRepository = tourGuideService.getUserRepository();
+		this.settings = settings;
+		this.executor = tourGuideService.getExecutor();
+		if (settings.shardCount() > userRepository.shardCount()) {
+			logger.warn("Tracker has " + settings.shardCount() + " shards but the user repository only "
+					+ userRepository.shardCount() + ", the extra shards stay idle.");
+		}
+		this.trackingPolicy = new AdaptiveTrackingPolicy(settings.adaptive(),
+				tourGuideService::getNearestAttractionDistance);
+		AtomicInteger threadCount = new AtomicInteger();
+		this.scheduler = Executors.newScheduledThreadPool(settings.shardCount(), runnable -> {
+			Thread thread = new Thread(runnable, "tracker-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
 
-		executorService.submit(this);
+		long now = System.nanoTime();
+		long shardSpacing = settings.pollingInterval().toNanos() / settings.shardCount();
+		for (int shard = 0; shard < settings.shardCount(); shard++) {
+			scheduleCycle(shard, now + shard * shardSpacing);
+		}
 	}
 
 	/**
-	 * Assures to shut down the Tracker thread
+	 * Assures to shut down the Tracker threads
 	 */
 	public void stopTracking() {
 		stop = true;
-		executorService.shutdownNow();
+		scheduler.shutdownNow();
+	}
+
+	public void addCycleListener(Consumer<TrackerCycle> listener) {
+		cycleListeners.add(listener);
+	}
+
+	public TrackerSettings getSettings() {
+		return settings;
+	}
+
+	public TrackerCycle getLastCycle() {
+		return lastCycle;
+	}
+
+	public long getCompletedCycles() {
+		return completedCycles.get();
+	}
+
+	public long getFailureCount() {
+		return failureCount.get();
+	}
+
+	public long getTrackedCount() {
+		return trackedCount.get();
 	}
 
 	@Override
-	public void run() {
-		StopWatch stopWatch = new StopWatch();
-		while (true) {
-			if (Thread.currentThread().isInterrupted() || stop) {
-				logger.debug("Tracker stopping");
-				break;
+	public void bindTo(MeterRegistry registry) {
+		lagTimer = Timer.builder("tourguide.tracker.cycle.lag")
+				.description("Delay between the planned start of a shard cycle and its actual start")
+				.register(registry);
+		cycleTimer = Timer.builder("tourguide.tracker.cycle")
+				.description("Time to track every due user of a shard")
+				.publishPercentileHistogram()
+				.register(registry);
+		FunctionCounter.builder("tourguide.tracker.tracked", this, Tracker::getTrackedCount)
+				.description("Users tracked")
+				.register(registry);
+		FunctionCounter.builder("tourguide.tracker.failures", this, Tracker::getFailureCount)
+				.description("Users whose tracking failed")
+				.register(registry);
+	}
+
+	private void scheduleCycle(int shard, long plannedStart) {
+		if (stop) {
+			return;
+		}
+		long jitter = settings.jitter().isZero() ? 0
+				: ThreadLocalRandom.current().nextLong(settings.jitter().toNanos() + 1);
+		long delay = Math.max(0, plannedStart + jitter - System.nanoTime());
+		try {
+			scheduler.schedule(() -> runCycle(shard, plannedStart, plannedStart + jitter), delay, TimeUnit.NANOSECONDS);
+		} catch (RejectedExecutionException e) {
+			logger.debug("Tracker stopped, shard " + shard + " not rescheduled");
+		}
+	}
+
+	/**
+	 * Tracks the users of a shard, paced across the polling interval, then schedules the next cycle
+	 * of the shard one polling interval after the planned start of this one, or immediately if that
+	 * time has already passed.
+	 */
+	private void runCycle(int shard, long plannedStart, long jitteredStart) {
+		if (stop) {
+			return;
+		}
+		TrackerCycleEvent event = new TrackerCycleEvent();
+		event.begin();
+		long start = System.nanoTime();
+		// users polled up to half a cycle early rather than a whole cycle late
+		long dueBefore = start + settings.pollingInterval().toNanos() / 2;
+		AtomicInteger failures = new AtomicInteger();
+		List<User> due = new ArrayList<>();
+		int skipped = 0;
+		for (int repositoryShard = shard; repositoryShard < userRepository.shardCount();
+			 repositoryShard += settings.shardCount()) {
+			for (User user : userRepository.shard(repositoryShard)) {
+				if (isDue(user, dueBefore)) {
+					due.add(user);
+				} else {
+					skipped++;
+				}
 			}
+		}
+		int users = due.size();
+		int notDue = skipped;
+		logger.debug("Begin Tracker shard " + shard + ". Tracking " + users + " users, " + notDue + " not due.");
+
+		long intervalNanos = settings.pollingInterval().toNanos();
+		int slices = (int) Math.max(1, Math.min(users, intervalNanos / TimeUnit.MILLISECONDS.toNanos(PACING_TICK_MILLIS)));
+		long sliceSpacing = intervalNanos / slices;
+		List<CompletableFuture<Void>> tracking = new ArrayList<>(slices);
+		for (int slice = 0; slice < slices; slice++) {
+			List<User> sliceUsers = due.subList((int) ((long) users * slice / slices),
+					(int) ((long) users * (slice + 1) / slices));
+			CompletableFuture<Void> sliceTracking = new CompletableFuture<>();
+			tracking.add(sliceTracking);
+			try {
+				scheduler.schedule(() -> trackSlice(sliceUsers, failures, sliceTracking),
+						Math.max(0, start + slice * sliceSpacing - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (RejectedExecutionException e) {
+				logger.debug("Tracker stopped, shard " + shard + " cycle not completed");
+				return;
+			}
+		}
+
+		CompletableFuture.allOf(tracking.toArray(new CompletableFuture[0])).whenComplete((v, throwable) -> {
+			TrackerCycle cycle = new TrackerCycle(shard, users, notDue, failures.get(),
+					Duration.ofNanos(System.nanoTime() - start), Duration.ofNanos(Math.max(0, start - jitteredStart)));
+			report(cycle);
+			event.shard = shard;
+			event.users = users;
+			event.skipped = notDue;
+			event.failures = cycle.failures();
+			event.lag = cycle.lag().toNanos();
+			event.commit();
+			long nextStart = plannedStart + settings.pollingInterval().toNanos();
+			scheduleCycle(shard, Math.max(nextStart, System.nanoTime()));
+		});
+	}
 
-			List<User> users = tourGuideService.getAllUsers();
-			logger.debug("Begin Tracker. Tracking " + users.size() + " users.");
-			stopWatch.start();
-			users.forEach(u -> tourGuideService.trackUserLocation(u));
-			stopWatch.stop();
-			logger.debug("Tracker Time Elapsed: " + TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds.");
-			stopWatch.reset();
+	/**
+	 * Submits the tracking of a slice of users from the shared executor, and completes
+	 * {@code sliceTracking} once every user of the slice is tracked or failed.
+	 */
+	private void trackSlice(List<User> sliceUsers, AtomicInteger failures, CompletableFuture<Void> sliceTracking) {
+		if (stop) {
+			return;
+		}
+		CompletableFuture.supplyAsync(() -> sliceUsers.stream()
+						.map(user -> tourGuideService.trackUserLocation(user)
+								.thenAccept(visitedLocation -> scheduleNextPoll(user))
+								.exceptionally(throwable -> {
+									failures.incrementAndGet();
+									return null;
+								}))
+						.toArray(CompletableFuture[]::new), executor)
+				.thenCompose(CompletableFuture::allOf)
+				.whenComplete((v, throwable) -> {
+					if (throwable != null) {
+						failures.addAndGet(sliceUsers.size());
+					}
+					sliceTracking.complete(null);
+				});
+	}
+
+	private void report(TrackerCycle cycle) {
+		lastCycle = cycle;
+		completedCycles.incrementAndGet();
+		failureCount.addAndGet(cycle.failures());
+		trackedCount.addAndGet(cycle.users());
+		Timer cycleTimer = this.cycleTimer;
+		if (cycleTimer != null) {
+			cycleTimer.record(cycle.duration());
+			lagTimer.record(cycle.lag());
+		}
+		logger.debug("Tracker shard " + cycle.shard() + ": tracked " + cycle.users() + " users (" + cycle.skipped() + " not due) in "
+				+ cycle.duration().toSeconds() + " seconds, lag " + cycle.lag().toSeconds() + " seconds, "
+				+ cycle.failures() + " failures.");
+		for (Consumer<TrackerCycle> listener : cycleListeners) {
 			try {
-				logger.debug("Tracker sleeping");
-				TimeUnit.SECONDS.sleep(trackingPollingInterval);
-			} catch (InterruptedException e) {
-				break;
+				listener.accept(cycle);
+			} catch (RuntimeException e) {
+				logger.warn("Tracker cycle listener failed: " + e.getMessage());
 			}
 		}
 	}
+
+	private boolean isDue(User user, long dueBefore) {
+		Long nextPoll = nextPollTimes.get(user.getUserId());
+		return nextPoll == null || nextPoll <= dueBefore;
+	}
+
+	private void scheduleNextPoll(User user) {
+		if (trackingPolicy.isEnabled()) {
+			nextPollTimes.put(user.getUserId(), System.nanoTime() + trackingPolicy.nextInterval(user).toNanos());
+		}
+	}
 }
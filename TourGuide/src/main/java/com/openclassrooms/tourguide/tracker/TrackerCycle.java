@@ -0,0 +1,17 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+
+/**
+ * Report of one tracking cycle of a shard.
+ *
+ * @param shard The shard tracked.
+ * @param users Number of users tracked.
+ * @param skipped Number of users of the shard not due for polling yet.
+ * @param failures Number of users whose tracking failed.
+ * @param duration Time from the start of the cycle until every user was tracked, the pacing of the
+ *                 users across the polling interval included.
+ * @param lag Delay between the planned start of the cycle and its actual start.
+ */
+public record TrackerCycle(int shard, int users, int skipped, int failures, Duration duration, Duration lag) {
+}
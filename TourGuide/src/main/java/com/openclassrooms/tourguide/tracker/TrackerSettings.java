@@ -0,0 +1,39 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+
+/**
+ * Scheduling settings of the {@link Tracker}, read from {@code tourguide.tracker.*}.
+ *
+ * @param pollingInterval Time between two tracking cycles of the same shard.
+ * @param shardCount Number of shards the users are split into. The shards start evenly spread
+ *                   across the polling interval.
+ * @param jitter Maximum random delay added to each cycle start, so shards do not line up.
+ * @param adaptive Settings of the adaptive polling of each user.
+ */
+public record TrackerSettings(Duration pollingInterval, int shardCount, Duration jitter,
+							  AdaptiveTrackingSettings adaptive) {
+
+	public TrackerSettings {
+		if (pollingInterval.isNegative() || pollingInterval.isZero()) {
+			throw new IllegalArgumentException("pollingInterval must be positive: " + pollingInterval);
+		}
+		if (shardCount <= 0) {
+			throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+		}
+		if (jitter.isNegative()) {
+			throw new IllegalArgumentException("jitter must not be negative: " + jitter);
+		}
+	}
+
+	/**
+	 * Settings polling every user on every cycle.
+	 */
+	public TrackerSettings(Duration pollingInterval, int shardCount, Duration jitter) {
+		this(pollingInterval, shardCount, jitter, AdaptiveTrackingSettings.disabled());
+	}
+
+	public static TrackerSettings defaults() {
+		return new TrackerSettings(Duration.ofMinutes(5), 4, Duration.ofSeconds(5));
+	}
+}
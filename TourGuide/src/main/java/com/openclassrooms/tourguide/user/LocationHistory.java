@@ -0,0 +1,43 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.List;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Storage of the visited locations of one user, oldest first.
+ *
+ * <p>The history is only appended to. Its locations are addressed by their position since the
+ * history was created or last cleared, which is how the reward calculation keeps track of the
+ * locations it has already processed. A bounded history may drop its oldest locations, the
+ * positions of the others do not change.
+ */
+public interface LocationHistory {
+
+	void add(VisitedLocation visitedLocation);
+
+	/**
+	 * @return The number of locations retained.
+	 */
+	int size();
+
+	/**
+	 * @return The number of locations added since the history was created or last cleared, which
+	 *         is the position of the next one.
+	 */
+	int position();
+
+	/**
+	 * @return The most recent location, or {@code null} if the history is empty.
+	 */
+	VisitedLocation last();
+
+	/**
+	 * @param from The position of the first location to return.
+	 * @return A snapshot of the retained locations from that position to the most recent one,
+	 *         oldest first.
+	 */
+	List<VisitedLocation> since(int from);
+
+	void clear();
+}
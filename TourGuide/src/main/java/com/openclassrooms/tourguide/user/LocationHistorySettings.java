@@ -0,0 +1,42 @@
+package com.openclassrooms.tourguide.user;
+
+import java.time.Duration;
+
+/**
+ * Bounds of a {@link RingBufferLocationHistory}, read from {@code tourguide.users.history.*}.
+ *
+ * @param capacity Number of most recent locations kept at full resolution.
+ * @param retention Age, relative to the most recent location, past which locations are dropped.
+ *                  {@link Duration#ZERO} keeps them until they are overwritten.
+ * @param downsampledCapacity Number of older locations kept once they leave the most recent ones,
+ *                            0 to drop them.
+ * @param downsampleInterval Minimum time between two older locations kept.
+ */
+public record LocationHistorySettings(int capacity, Duration retention, int downsampledCapacity,
+									  Duration downsampleInterval) {
+
+	public static final int DEFAULT_CAPACITY = 128;
+
+	public LocationHistorySettings {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		if (retention.isNegative()) {
+			throw new IllegalArgumentException("retention must not be negative: " + retention);
+		}
+		if (downsampledCapacity < 0) {
+			throw new IllegalArgumentException("downsampledCapacity must not be negative: " + downsampledCapacity);
+		}
+		if (downsampleInterval.isNegative()) {
+			throw new IllegalArgumentException("downsampleInterval must not be negative: " + downsampleInterval);
+		}
+	}
+
+	/**
+	 * Settings keeping the {@value #DEFAULT_CAPACITY} most recent locations, without retention or
+	 * downsampling.
+	 */
+	public static LocationHistorySettings defaults() {
+		return new LocationHistorySettings(DEFAULT_CAPACITY, Duration.ZERO, 0, Duration.ZERO);
+	}
+}
@@ -0,0 +1,45 @@
+package com.openclassrooms.tourguide.user;
+
+import gpsUtil.location.Location;
+
+/**
+ * Encoding of a location in one {@code long}: the latitude and the longitude as fixed-point ints of
+ * {@value #UNITS_PER_DEGREE} units per degree, about 1 cm, the latitude in the high 32 bits.
+ *
+ * <p>The histories and the rewards keep their locations in this form and only create the
+ * {@link Location} objects when they are read.
+ */
+public final class PackedLocation {
+
+	public static final double UNITS_PER_DEGREE = 1e7;
+
+	private PackedLocation() {
+	}
+
+	public static long pack(double latitude, double longitude) {
+		return ((long) toFixedPoint(latitude) << 32) | (toFixedPoint(longitude) & 0xFFFFFFFFL);
+	}
+
+	public static long pack(Location location) {
+		return pack(location.latitude, location.longitude);
+	}
+
+	public static double latitude(long packed) {
+		return (int) (packed >> 32) / UNITS_PER_DEGREE;
+	}
+
+	public static double longitude(long packed) {
+		return (int) packed / UNITS_PER_DEGREE;
+	}
+
+	public static Location toLocation(long packed) {
+		return new Location(latitude(packed), longitude(packed));
+	}
+
+	private static int toFixedPoint(double degrees) {
+		if (!(Math.abs(degrees) <= 180)) {
+			throw new IllegalArgumentException("Coordinate out of range: " + degrees);
+		}
+		return (int) Math.round(degrees * UNITS_PER_DEGREE);
+	}
+}
@@ -0,0 +1,236 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Bounded {@link LocationHistory} on the heap, in constant memory per user.
+ *
+ * <p>The locations are stored as primitives in two ring buffers instead of {@link VisitedLocation}
+ * objects in a growing list, so an append is O(1) amortized and never copies the history. Each
+ * location takes two longs, its {@link PackedLocation} and its time; the buffers are:
+ *
+ * <ul>
+ *   <li>the {@link LocationHistorySettings#capacity() most recent} locations, at full resolution;</li>
+ *   <li>when enabled, the locations leaving them, downsampled to one per
+ *       {@link LocationHistorySettings#downsampleInterval() interval}, up to
+ *       {@link LocationHistorySettings#downsampledCapacity() their own capacity}.</li>
+ * </ul>
+ *
+ * <p>With a {@link LocationHistorySettings#retention() retention}, the locations older than the
+ * retention relative to the most recent one are dropped on each append, the most recent one is
+ * always kept. Every location keeps its position, so {@link #since(int)} returns the locations
+ * added after a position that are still retained.
+ */
+public class RingBufferLocationHistory implements LocationHistory {
+
+	private final UUID userId;
+	private final long retentionMillis;
+	private final long downsampleIntervalMillis;
+	private final Ring recent;
+	// null when downsampling is disabled
+	private final Ring downsampled;
+	private int position;
+
+	public RingBufferLocationHistory(UUID userId, LocationHistorySettings settings) {
+		this.userId = userId;
+		this.retentionMillis = settings.retention().toMillis();
+		this.downsampleIntervalMillis = settings.downsampleInterval().toMillis();
+		this.recent = new Ring(settings.capacity(), false);
+		this.downsampled = settings.downsampledCapacity() > 0 ? new Ring(settings.downsampledCapacity(), true) : null;
+	}
+
+	@Override
+	public synchronized void add(VisitedLocation visitedLocation) {
+		if (recent.isFull()) {
+			demoteOldest();
+		}
+		long timeVisited = visitedLocation.timeVisited.getTime();
+		recent.push(PackedLocation.pack(visitedLocation.location), timeVisited, position++);
+		if (retentionMillis > 0) {
+			dropOlderThan(timeVisited - retentionMillis);
+		}
+	}
+
+	@Override
+	public synchronized int size() {
+		return recent.size + (downsampled == null ? 0 : downsampled.size);
+	}
+
+	@Override
+	public synchronized int position() {
+		return position;
+	}
+
+	@Override
+	public synchronized VisitedLocation last() {
+		return recent.size == 0 ? null : recent.toVisitedLocation(userId, recent.size - 1);
+	}
+
+	@Override
+	public synchronized List<VisitedLocation> since(int from) {
+		List<VisitedLocation> locations = new ArrayList<>(size());
+		if (downsampled != null) {
+			downsampled.collect(userId, from, locations);
+		}
+		recent.collect(userId, from, locations);
+		return locations;
+	}
+
+	@Override
+	public synchronized void clear() {
+		recent.clear();
+		if (downsampled != null) {
+			downsampled.clear();
+		}
+		position = 0;
+	}
+
+	/**
+	 * Moves the oldest recent location to the downsampled ones if it is at least one interval after
+	 * the last of them, drops it otherwise.
+	 */
+	private void demoteOldest() {
+		if (downsampled != null && (downsampled.size == 0
+				|| recent.timeVisited(0) >= downsampled.timeVisited(downsampled.size - 1) + downsampleIntervalMillis)) {
+			downsampled.push(recent.packedLocation(0), recent.timeVisited(0), recent.position(0));
+		}
+		recent.dropOldest();
+	}
+
+	private void dropOlderThan(long cutoff) {
+		while (downsampled != null && downsampled.size > 0 && downsampled.timeVisited(0) < cutoff) {
+			downsampled.dropOldest();
+		}
+		while (recent.size > 1 && recent.timeVisited(0) < cutoff) {
+			recent.dropOldest();
+		}
+	}
+
+	/**
+	 * Ring of at most {@code capacity} locations in parallel primitive arrays, addressed from the
+	 * oldest (0) to the most recent ({@code size - 1}). A push to a full ring overwrites the oldest
+	 * location.
+	 *
+	 * <p>The arrays start empty and double as the ring fills up, so a user with few locations does
+	 * not hold the full capacity. The positions of the recent ring follow each other, so they are
+	 * computed from the position of its oldest location instead of being stored.
+	 */
+	private static final class Ring {
+		private static final long[] EMPTY = {};
+		private static final int INITIAL_LENGTH = 4;
+
+		private final int capacity;
+		private long[] coordinates = EMPTY;
+		private long[] timesVisited = EMPTY;
+		// null when the positions follow each other from firstPosition
+		private int[] positions;
+		private int firstPosition;
+		private int head;
+		private int size;
+
+		private Ring(int capacity, boolean storesPositions) {
+			this.capacity = capacity;
+			this.positions = storesPositions ? new int[0] : null;
+		}
+
+		private boolean isFull() {
+			return size == capacity;
+		}
+
+		private void push(long packedLocation, long timeVisited, int position) {
+			if (isFull()) {
+				dropOldest();
+			}
+			if (size == coordinates.length) {
+				grow();
+			}
+			if (size == 0) {
+				firstPosition = position;
+			}
+			int slot = slot(size++);
+			coordinates[slot] = packedLocation;
+			timesVisited[slot] = timeVisited;
+			if (positions != null) {
+				positions[slot] = position;
+			}
+		}
+
+		private void dropOldest() {
+			head = slot(1);
+			size--;
+			firstPosition++;
+		}
+
+		private void clear() {
+			coordinates = EMPTY;
+			timesVisited = EMPTY;
+			if (positions != null) {
+				positions = new int[0];
+			}
+			head = 0;
+			size = 0;
+		}
+
+		private long packedLocation(int index) {
+			return coordinates[slot(index)];
+		}
+
+		private long timeVisited(int index) {
+			return timesVisited[slot(index)];
+		}
+
+		private int position(int index) {
+			return positions == null ? firstPosition + index : positions[slot(index)];
+		}
+
+		private VisitedLocation toVisitedLocation(UUID userId, int index) {
+			int slot = slot(index);
+			return new VisitedLocation(userId, PackedLocation.toLocation(coordinates[slot]), new Date(timesVisited[slot]));
+		}
+
+		private void collect(UUID userId, int from, List<VisitedLocation> locations) {
+			for (int index = 0; index < size; index++) {
+				if (position(index) >= from) {
+					locations.add(toVisitedLocation(userId, index));
+				}
+			}
+		}
+
+		/**
+		 * Doubles the arrays up to the capacity, moving the oldest location to index 0.
+		 */
+		private void grow() {
+			int length = Math.min(capacity, Math.max(INITIAL_LENGTH, coordinates.length * 2));
+			int[] grownPositions = null;
+			if (positions != null) {
+				grownPositions = new int[length];
+				System.arraycopy(positions, head, grownPositions, 0, positions.length - head);
+				System.arraycopy(positions, 0, grownPositions, positions.length - head, head);
+			}
+			coordinates = grown(coordinates, length);
+			timesVisited = grown(timesVisited, length);
+			positions = grownPositions;
+			head = 0;
+		}
+
+		/**
+		 * Copies a full ring into a longer array, oldest first.
+		 */
+		private long[] grown(long[] array, int length) {
+			long[] grown = new long[length];
+			System.arraycopy(array, head, grown, 0, array.length - head);
+			System.arraycopy(array, 0, grown, array.length - head, head);
+			return grown;
+		}
+
+		private int slot(int index) {
+			int slot = head + index;
+			return slot < coordinates.length ? slot : slot - coordinates.length;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory {@link UserRepository} over an array of {@link ConcurrentHashMap}s, one per shard.
+ *
+ * <p>A user belongs to the shard given by the hash of its name, so a lookup or an insertion touches
+ * a single map. The shards are independent: a writer only contends with the readers and writers of
+ * its own shard, and the {@link com.openclassrooms.tourguide.tracker.Tracker} walks its shards
+ * without visiting the others.
+ *
+ * <p>When created with {@link LocationHistorySettings}, the repository gives every user it adds a
+ * {@link RingBufferLocationHistory} bounded by them.
+ */
+public class ShardedUserRepository implements UserRepository {
+
+	public static final int DEFAULT_SHARD_COUNT = 64;
+
+	private final ConcurrentHashMap<String, User>[] shards;
+	// null to keep the history of the users as they are added
+	private final LocationHistorySettings historySettings;
+
+	public ShardedUserRepository() {
+		this(DEFAULT_SHARD_COUNT);
+	}
+
+	public ShardedUserRepository(int shardCount) {
+		this(shardCount, null);
+	}
+
+	public ShardedUserRepository(int shardCount, LocationHistorySettings historySettings) {
+		this(shardCount, historySettings, 0);
+	}
+
+	/**
+	 * @param expectedUserCount Number of users the shards are sized for, so that adding them does
+	 *                          not resize the maps, or 0 for the default size.
+	 */
+	@SuppressWarnings("unchecked")
+	public ShardedUserRepository(int shardCount, LocationHistorySettings historySettings, int expectedUserCount) {
+		if (shardCount <= 0) {
+			throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+		}
+		this.historySettings = historySettings;
+		shards = new ConcurrentHashMap[shardCount];
+		for (int shard = 0; shard < shardCount; shard++) {
+			shards[shard] = expectedUserCount > 0
+					? new ConcurrentHashMap<>(expectedUserCount / shardCount + 1)
+					: new ConcurrentHashMap<>();
+		}
+	}
+
+	@Override
+	public User findByUserName(String userName) {
+		return shards[shardOf(userName)].get(userName);
+	}
+
+	@Override
+	public boolean add(User user) {
+		if (shards[shardOf(user.getUserName())].putIfAbsent(user.getUserName(), user) != null) {
+			return false;
+		}
+		if (historySettings != null) {
+			user.setLocationHistory(new RingBufferLocationHistory(user.getUserId(), historySettings));
+		}
+		return true;
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (ConcurrentHashMap<String, User> shard : shards) {
+			size += shard.size();
+		}
+		return size;
+	}
+
+	@Override
+	public int shardCount() {
+		return shards.length;
+	}
+
+	@Override
+	public Collection<User> shard(int shard) {
+		return Collections.unmodifiableCollection(shards[shard].values());
+	}
+
+	@Override
+	public Iterator<User> iterator() {
+		return new Iterator<>() {
+			private int shard;
+			private Iterator<User> current = shards[0].values().iterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!current.hasNext()) {
+					if (++shard >= shards.length) {
+						return false;
+					}
+					current = shards[shard].values().iterator();
+				}
+				return true;
+			}
+
+			@Override
+			public User next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return current.next();
+			}
+		};
+	}
+
+	@Override
+	public Spliterator<User> spliterator() {
+		return new ShardSpliterator(0, shards.length, null);
+	}
+
+	private int shardOf(String userName) {
+		int hash = userName.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+	}
+
+	/**
+	 * Splits the range of shards in halves, then the single remaining shard through the spliterator
+	 * of its map.
+	 */
+	private final class ShardSpliterator implements Spliterator<User> {
+		private int shard;
+		private final int end;
+		// spliterator of the shard being traversed, taken from shards[shard - 1]
+		private Spliterator<User> current;
+
+		private ShardSpliterator(int shard, int end, Spliterator<User> current) {
+			this.shard = shard;
+			this.end = end;
+			this.current = current;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super User> action) {
+			while (true) {
+				if (current == null) {
+					if (shard >= end) {
+						return false;
+					}
+					current = shards[shard++].values().spliterator();
+				}
+				if (current.tryAdvance(action)) {
+					return true;
+				}
+				current = null;
+			}
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super User> action) {
+			if (current != null) {
+				current.forEachRemaining(action);
+				current = null;
+			}
+			while (shard < end) {
+				shards[shard++].values().forEach(action);
+			}
+		}
+
+		@Override
+		public Spliterator<User> trySplit() {
+			if (end - shard >= 2) {
+				int middle = (shard + end) >>> 1;
+				Spliterator<User> prefix = new ShardSpliterator(shard, middle, current);
+				shard = middle;
+				current = null;
+				return prefix;
+			}
+			if (current == null && shard < end) {
+				current = shards[shard++].values().spliterator();
+			}
+			return current == null ? null : current.trySplit();
+		}
+
+		@Override
+		public long estimateSize() {
+			long size = current == null ? 0 : current.estimateSize();
+			for (int i = shard; i < end; i++) {
+				size += shards[i].size();
+			}
+			return size;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.CONCURRENT | Spliterator.NONNULL;
+		}
+	}
+}
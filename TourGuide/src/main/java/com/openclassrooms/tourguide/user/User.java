@@ -1,39 +1,60 @@
 package com.openclassrooms.tourguide.user;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import gpsUtil.location.VisitedLocation;
 import tripPricer.Provider;
 
 /**
  * Represents a user with a list of visited locations, rewards, preferences,
- * and trip deals. The user's collections are thread-safe, using
- * CopyOnWriteArrayList to handle concurrent access.
+ * and trip deals. The user is safe for concurrent access.
  *
  * Changes made:
- * - Replaced ArrayList with CopyOnWriteArrayList for thread safety,
- *   preventing ConcurrentModificationException during concurrent access.
- * - Simplified the addUserReward method to improve readability by using
- *   noneMatch instead of filtering and counting.
+ * - The visited locations are kept by a pluggable LocationHistory: by default
+ *   a RingBufferLocationHistory of packed primitives, bounded and appended to
+ *   in O(1), or the memory-mapped segments of a persistent user repository.
+ * - A high-water mark over the visited locations lets reward calculation
+ *   only process the locations added since its last run.
+ * - The rewards are kept in an array grown on demand, guarded by the lock of
+ *   the user, and deduplicated through a bitset over the attraction IDs of
+ *   the AttractionTable: addUserReward is an atomic, constant-time "reward if
+ *   absent".
+ * - A running total of the reward points, used to price the trip deals, is
+ *   kept instead of summing the rewards on every request.
+ * - The trip deals are an immutable list, replaced as a whole.
  */
 public class User {
+	private static final UserReward[] NO_REWARDS = {};
+	private static final long[] NO_ATTRACTIONS = {};
 	private final UUID userId;
 	private final String userName;
 	private String phoneNumber;
 	private String emailAddress;
 	private Date latestLocationTimestamp;
-	private List<VisitedLocation> visitedLocations = new CopyOnWriteArrayList<>();
-	private List<UserReward> userRewards = new CopyOnWriteArrayList<>();
+	private volatile LocationHistory visitedLocations;
+	private UserReward[] userRewards = NO_REWARDS;
+	private int userRewardCount;
+	private int rewardPointsTotal;
+	// bit i set when the user was rewarded for the attraction of ID i in the AttractionTable
+	private long[] rewardedAttractions = NO_ATTRACTIONS;
 	private UserPreferences userPreferences = new UserPreferences();
-	private List<Provider> tripDeals = new CopyOnWriteArrayList<>();
+	private volatile List<Provider> tripDeals = List.of();
+	private int rewardedLocationCount;
+	private int rewardGeneration = -1;
 	public User(UUID userId, String userName, String phoneNumber, String emailAddress) {
+		this(userId, userName, phoneNumber, emailAddress,
+				new RingBufferLocationHistory(userId, LocationHistorySettings.defaults()));
+	}
+
+	public User(UUID userId, String userName, String phoneNumber, String emailAddress, LocationHistory visitedLocations) {
 		this.userId = userId;
 		this.userName = userName;
 		this.phoneNumber = phoneNumber;
 		this.emailAddress = emailAddress;
+		this.visitedLocations = visitedLocations;
 	}
 	
 	public UUID getUserId() {
@@ -68,26 +89,126 @@ public class User {
 		return latestLocationTimestamp;
 	}
 	
-	public void addToVisitedLocations(VisitedLocation visitedLocation) {
+	public synchronized void addToVisitedLocations(VisitedLocation visitedLocation) {
 		visitedLocations.add(visitedLocation);
 	}
 	
+	/**
+	 * @return A snapshot of the visited locations, oldest first.
+	 */
 	public List<VisitedLocation> getVisitedLocations() {
+		return visitedLocations.since(0);
+	}
+
+	/**
+	 * Reads only the end of the history, which for a persistent history is not walked past the
+	 * requested locations.
+	 *
+	 * @param count The number of most recent locations to return.
+	 * @return A snapshot of at most {@code count} of the most recent locations, oldest first.
+	 */
+	public List<VisitedLocation> getRecentVisitedLocations(int count) {
+		return visitedLocations.since(visitedLocations.position() - count);
+	}
+
+	public LocationHistory getLocationHistory() {
 		return visitedLocations;
 	}
+
+	/**
+	 * Moves the visited locations to another store, copying the ones recorded so far into it. The
+	 * positions change, so the next reward calculation rescans every location.
+	 *
+	 * @param locationHistory The new store, empty.
+	 */
+	public synchronized void setLocationHistory(LocationHistory locationHistory) {
+		for (VisitedLocation visitedLocation : visitedLocations.since(0)) {
+			locationHistory.add(visitedLocation);
+		}
+		visitedLocations = locationHistory;
+		rewardedLocationCount = 0;
+	}
 	
-	public void clearVisitedLocations() {
+	public synchronized void clearVisitedLocations() {
 		visitedLocations.clear();
+		rewardedLocationCount = 0;
+	}
+
+	/**
+	 * Returns the visited locations that have not been processed by the reward calculation yet,
+	 * and marks them as processed.
+	 *
+	 * <p>The locations are only appended to, so the already processed ones are tracked with a
+	 * high-water mark. When the given generation differs from the one of the previous call, the
+	 * rules used to grant rewards have changed and every location is returned again.
+	 *
+	 * @param generation The generation of the reward rules used by the caller.
+	 * @return A snapshot of the locations to process, oldest first.
+	 */
+	public synchronized List<VisitedLocation> claimLocationsToReward(int generation) {
+		int from = generation == rewardGeneration ? rewardedLocationCount : 0;
+		List<VisitedLocation> locations = visitedLocations.since(from);
+		rewardGeneration = generation;
+		rewardedLocationCount = visitedLocations.position();
+		return locations;
+	}
+
+	/**
+	 * Forgets which locations were processed, so the next reward calculation rescans them all.
+	 */
+	public synchronized void resetRewardedLocations() {
+		rewardedLocationCount = 0;
 	}
 
-	public void addUserReward(UserReward userReward) {
-		if(userRewards.stream().noneMatch(r -> r.attraction.attractionName.equals(userReward.attraction.attractionName))) {
-			userRewards.add(userReward);
+	/**
+	 * Adds the reward unless the user has already been rewarded for its attraction. The check and
+	 * the append happen under the lock of the user, so two threads granting the same attraction at
+	 * once can never both add a reward.
+	 *
+	 * <p>Rewards are deduplicated on the bitset of their attraction IDs in the AttractionTable, in
+	 * constant time.
+	 *
+	 * @param userReward The reward to add.
+	 * @return {@code true} if the reward was added, {@code false} if it was a duplicate.
+	 */
+	public synchronized boolean addUserReward(UserReward userReward) {
+		int attractionIndex = userReward.getAttractionIndex();
+		if (isRewarded(attractionIndex)) {
+			return false;
+		}
+		int word = attractionIndex >>> 6;
+		if (word >= rewardedAttractions.length) {
+			rewardedAttractions = Arrays.copyOf(rewardedAttractions, word + 1);
+		}
+		rewardedAttractions[word] |= 1L << attractionIndex;
+		if (userRewardCount == userRewards.length) {
+			userRewards = Arrays.copyOf(userRewards, Math.max(4, userRewardCount * 2));
 		}
+		userRewards[userRewardCount++] = userReward;
+		rewardPointsTotal += userReward.getRewardPoints();
+		return true;
 	}
+
+	/**
+	 * @return The sum of the points of the rewards, kept up to date as they are added instead of
+	 *         summed on every call. A change of the points of a reward after it was added is not
+	 *         counted.
+	 */
+	public synchronized int getRewardPointsTotal() {
+		return rewardPointsTotal;
+	}
+
+	/**
+	 * @param attractionIndex The ID of the attraction in the AttractionTable.
+	 */
+	public synchronized boolean isRewarded(int attractionIndex) {
+		int word = attractionIndex >>> 6;
+		return word < rewardedAttractions.length && (rewardedAttractions[word] & (1L << attractionIndex)) != 0;
+	}
+
 	
-	public List<UserReward> getUserRewards() {
-		return userRewards;
+	public synchronized List<UserReward> getUserRewards() {
+		return List.of(Arrays.copyOf(userRewards, userRewardCount));
 	}
 	
 	public UserPreferences getUserPreferences() {
@@ -98,12 +219,15 @@ public class User {
 		this.userPreferences = userPreferences;
 	}
 
+	/**
+	 * @return The most recent visited location, or {@code null} if there is none.
+	 */
 	public VisitedLocation getLastVisitedLocation() {
-		return visitedLocations.get(visitedLocations.size() - 1);
+		return visitedLocations.last();
 	}
 	
 	public void setTripDeals(List<Provider> tripDeals) {
-		this.tripDeals = tripDeals;
+		this.tripDeals = List.copyOf(tripDeals);
 	}
 	
 	public List<Provider> getTripDeals() {
@@ -0,0 +1,78 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Registry of the users, keyed by user name.
+ *
+ * <p>The users are split into a fixed number of shards. Every view returned by the repository is a
+ * live, weakly consistent view of the shards rather than a copy:
+ *
+ * <ul>
+ *   <li>{@link #iterator()} and {@link #shard(int)} are cursors: they never throw
+ *       {@link java.util.ConcurrentModificationException}, and may or may not see the users added
+ *       while they run.</li>
+ *   <li>{@link #spliterator()} splits by shard first, so {@link #parallelStream()} processes the
+ *       shards in parallel without collecting the users first.</li>
+ * </ul>
+ *
+ * <p>{@link #findAll()} is the only method copying the users, for callers needing a stable list.
+ */
+public interface UserRepository extends Iterable<User> {
+
+	/**
+	 * @return The user with the given name, or {@code null} if there is none.
+	 */
+	User findByUserName(String userName);
+
+	/**
+	 * Adds the user unless a user with the same name is already registered.
+	 *
+	 * @return {@code true} if the user was added.
+	 */
+	boolean add(User user);
+
+	/**
+	 * Adds the users, in parallel, as {@link #add(User)} does for each of them.
+	 *
+	 * @return The number of users added.
+	 */
+	default int addAll(Collection<User> users) {
+		return users.parallelStream().mapToInt(user -> add(user) ? 1 : 0).sum();
+	}
+
+	int size();
+
+	int shardCount();
+
+	/**
+	 * @param shard The shard index, between 0 and {@link #shardCount()} excluded.
+	 * @return A read-only, live view of the users of the shard.
+	 */
+	Collection<User> shard(int shard);
+
+	@Override
+	Spliterator<User> spliterator();
+
+	default Stream<User> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	default Stream<User> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * @return A copy of every user.
+	 */
+	default List<User> findAll() {
+		List<User> users = new ArrayList<>(size());
+		forEach(users::add);
+		return users;
+	}
+}
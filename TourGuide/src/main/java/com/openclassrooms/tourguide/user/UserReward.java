@@ -1,30 +1,77 @@
 package com.openclassrooms.tourguide.user;
 
+import java.util.Date;
+import java.util.UUID;
+
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.attraction.AttractionTable;
 
+/**
+ * Reward granted to a user for visiting an attraction.
+ *
+ * Changes made:
+ * - The visited location is kept as a {@link PackedLocation} and a timestamp instead of the
+ *   VisitedLocation, Location and Date objects; the public visitedLocation field is replaced by
+ *   {@link #getVisitedLocation()}, which creates them when the reward is read.
+ * - The reward records the int ID of its attraction in the AttractionTable, which the user
+ *   deduplicates its rewards on. The Attraction itself is the shared instance of the table, so
+ *   referencing it costs no more than the ID. The constructor without the ID looks it up with
+ *   {@link AttractionTable#sharedIdOf(UUID)}, so every reward is deduplicated on the same key.
+ */
 public class UserReward {
 
-	public final VisitedLocation visitedLocation;
+	private final UUID userId;
+	private final long visitedCoordinates;
+	private final long timeVisited;
 	public final Attraction attraction;
+	private final int attractionIndex;
 	private int rewardPoints;
+
+	/**
+	 * Looks the ID of the attraction up in the AttractionTable it was built into.
+	 *
+	 * @throws IllegalArgumentException If no AttractionTable holds the attraction.
+	 */
 	public UserReward(VisitedLocation visitedLocation, Attraction attraction, int rewardPoints) {
-		this.visitedLocation = visitedLocation;
+		this(visitedLocation, AttractionTable.sharedIdOf(attraction.attractionId), attraction, rewardPoints);
+	}
+
+	/**
+	 * @param attractionIndex The ID of the attraction in the AttractionTable.
+	 */
+	public UserReward(VisitedLocation visitedLocation, int attractionIndex, Attraction attraction, int rewardPoints) {
+		if (attractionIndex < 0) {
+			throw new IllegalArgumentException("attractionIndex must not be negative: " + attractionIndex);
+		}
+		this.userId = visitedLocation.userId;
+		this.visitedCoordinates = PackedLocation.pack(visitedLocation.location);
+		this.timeVisited = visitedLocation.timeVisited.getTime();
 		this.attraction = attraction;
+		this.attractionIndex = attractionIndex;
 		this.rewardPoints = rewardPoints;
 	}
-	
-	public UserReward(VisitedLocation visitedLocation, Attraction attraction) {
-		this.visitedLocation = visitedLocation;
-		this.attraction = attraction;
+
+	/**
+	 * @return A new VisitedLocation, equal in value to the one the reward was created with.
+	 */
+	public VisitedLocation getVisitedLocation() {
+		return new VisitedLocation(userId, PackedLocation.toLocation(visitedCoordinates), new Date(timeVisited));
+	}
+
+	/**
+	 * @return The ID of the attraction in the AttractionTable.
+	 */
+	int getAttractionIndex() {
+		return attractionIndex;
 	}
 
 	public void setRewardPoints(int rewardPoints) {
 		this.rewardPoints = rewardPoints;
 	}
-	
+
 	public int getRewardPoints() {
 		return rewardPoints;
 	}
-	
+
 }
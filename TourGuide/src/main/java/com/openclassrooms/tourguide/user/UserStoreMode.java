@@ -0,0 +1,15 @@
+package com.openclassrooms.tourguide.user;
+
+/**
+ * Implementation of the {@link UserRepository}, set with {@code tourguide.users.store}.
+ */
+public enum UserStoreMode {
+	/**
+	 * Users and locations on the heap, lost on restart.
+	 */
+	MEMORY,
+	/**
+	 * Users in a file and locations in memory-mapped segments, under {@code tourguide.users.directory}.
+	 */
+	MAPPED
+}
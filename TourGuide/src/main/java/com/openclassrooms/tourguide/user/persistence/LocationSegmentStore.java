@@ -0,0 +1,247 @@
+package com.openclassrooms.tourguide.user.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.LocationHistory;
+
+/**
+ * Append-only store of the visited locations of every user, in memory-mapped segment files.
+ *
+ * <p>The store is a sequence of fixed-width records of {@value #RECORD_SIZE} bytes, numbered from
+ * 0, split into files of {@code recordsPerSegment} records named {@code locations-00000.seg},
+ * {@code locations-00001.seg}... Each file is mapped once and read and written in place. It starts
+ * with a header of {@value #RECORD_SIZE} bytes holding its write watermark, an int: no record at or
+ * after the watermark slot was ever written. The records follow:
+ *
+ * <pre>
+ * offset  0  userId, most significant bits   long, written last, 0 for a free record
+ * offset  8  userId, least significant bits  long
+ * offset 16  latitude                        double
+ * offset 24  longitude                       double
+ * offset 32  time visited, epoch millis      long, Long.MIN_VALUE for a record clearing the history
+ * offset 40  previous record of the user     long, -1 for the first one
+ * </pre>
+ *
+ * <p>The records of a user are chained backwards, so the only index kept on the heap is the last
+ * record and the size of each history: the recent locations are read straight from the mapping by
+ * walking the chain, without loading the rest of the history. On opening, the segments are scanned
+ * once, up to their watermark, to rebuild that index.
+ *
+ * <p>The watermark is raised before the records it covers are written, by blocks of
+ * {@value #WATERMARK_STEP} records so that appends rarely update it. A record is only reachable
+ * once its user ID is written, which is done last, so a process crashing mid-append leaves at most
+ * a free record behind. {@link #close()} flushes the mappings to
+ * disk. A directory must always be reopened with the same number of records per segment.
+ */
+public class LocationSegmentStore implements Closeable {
+
+	public static final int RECORD_SIZE = 48;
+	// 48 MiB per segment
+	public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+	static final long NO_RECORD = -1;
+	// records covered by each raise of a watermark
+	static final int WATERMARK_STEP = 1024;
+
+	private static final int HEADER_SIZE = RECORD_SIZE;
+	private static final int WATERMARK = 0;
+
+	private static final int USER_ID_MOST_SIGNIFICANT_BITS = 0;
+	private static final int USER_ID_LEAST_SIGNIFICANT_BITS = 8;
+	private static final int LATITUDE = 16;
+	private static final int LONGITUDE = 24;
+	private static final int TIME_VISITED = 32;
+	private static final int PREVIOUS = 40;
+	private static final long CLEARED = Long.MIN_VALUE;
+
+	private final Path directory;
+	private final int recordsPerSegment;
+	private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+	private final Object segmentLock = new Object();
+	private final AtomicLong nextRecord = new AtomicLong();
+	private final Object watermarkLock = new Object();
+	// the records before it are covered by the watermark of their segment
+	private volatile long reservedRecord;
+	// histories found by the scan of the segments, until claimed by openHistory
+	private final Map<UUID, MappedLocationHistory> recoveredHistories = new HashMap<>();
+
+	public LocationSegmentStore(Path directory) throws IOException {
+		this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+	}
+
+	public LocationSegmentStore(Path directory, int recordsPerSegment) throws IOException {
+		if (recordsPerSegment <= 0 || (long) recordsPerSegment * RECORD_SIZE + HEADER_SIZE > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("recordsPerSegment out of range: " + recordsPerSegment);
+		}
+		this.directory = directory;
+		this.recordsPerSegment = recordsPerSegment;
+		Files.createDirectories(directory);
+		recover();
+	}
+
+	/**
+	 * Returns the history of a user: the one found in the segments for a user recorded before the
+	 * store was opened, a new empty one otherwise.
+	 */
+	public synchronized LocationHistory openHistory(UUID userId) {
+		MappedLocationHistory history = recoveredHistories.remove(userId);
+		return history != null ? history : new MappedLocationHistory(this, userId, NO_RECORD, 0);
+	}
+
+	/**
+	 * @return The number of records appended, free ones included.
+	 */
+	public long getRecordCount() {
+		return nextRecord.get();
+	}
+
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	long append(UUID userId, VisitedLocation visitedLocation, long previous) {
+		return write(userId, visitedLocation.location.latitude, visitedLocation.location.longitude,
+				visitedLocation.timeVisited.getTime(), previous);
+	}
+
+	long appendClear(UUID userId) {
+		return write(userId, 0, 0, CLEARED, NO_RECORD);
+	}
+
+	VisitedLocation read(UUID userId, long record) {
+		MappedByteBuffer segment = segments.get(segmentOf(record));
+		int position = positionOf(record);
+		return new VisitedLocation(userId,
+				new Location(segment.getDouble(position + LATITUDE), segment.getDouble(position + LONGITUDE)),
+				new Date(segment.getLong(position + TIME_VISITED)));
+	}
+
+	long previous(long record) {
+		return segments.get(segmentOf(record)).getLong(positionOf(record) + PREVIOUS);
+	}
+
+	/**
+	 * Writes every field of the record with absolute puts, which never move the shared position of
+	 * the mapping, so concurrent appends to distinct records do not interfere.
+	 */
+	private long write(UUID userId, double latitude, double longitude, long timeVisited, long previous) {
+		long record = nextRecord.getAndIncrement();
+		if (record >= reservedRecord) {
+			reserve(record);
+		}
+		MappedByteBuffer segment = segment(segmentOf(record));
+		int position = positionOf(record);
+		segment.putDouble(position + LATITUDE, latitude);
+		segment.putDouble(position + LONGITUDE, longitude);
+		segment.putLong(position + TIME_VISITED, timeVisited);
+		segment.putLong(position + PREVIOUS, previous);
+		segment.putLong(position + USER_ID_LEAST_SIGNIFICANT_BITS, userId.getLeastSignificantBits());
+		segment.putLong(position + USER_ID_MOST_SIGNIFICANT_BITS, userId.getMostSignificantBits());
+		return record;
+	}
+
+	/**
+	 * Raises the watermarks until they cover the record, up to {@value #WATERMARK_STEP} records
+	 * past it, or to the end of its segment.
+	 */
+	private void reserve(long record) {
+		synchronized (watermarkLock) {
+			while (record >= reservedRecord) {
+				int index = segmentOf(reservedRecord);
+				long segmentStart = (long) index * recordsPerSegment;
+				long reserved = Math.min(Math.max(reservedRecord, record) + WATERMARK_STEP, segmentStart + recordsPerSegment);
+				MappedByteBuffer segment = segment(index);
+				int watermark = (int) (reserved - segmentStart);
+				if (watermark > segment.getInt(WATERMARK)) {
+					segment.putInt(WATERMARK, watermark);
+				}
+				reservedRecord = reserved;
+			}
+		}
+	}
+
+	private MappedByteBuffer segment(int index) {
+		if (index < segments.size()) {
+			return segments.get(index);
+		}
+		synchronized (segmentLock) {
+			try {
+				while (segments.size() <= index) {
+					segments.add(map(segments.size()));
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot map location segment " + index, e);
+			}
+			return segments.get(index);
+		}
+	}
+
+	private MappedByteBuffer map(int index) throws IOException {
+		Path file = directory.resolve(String.format("locations-%05d.seg", index));
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+		}
+	}
+
+	/**
+	 * Maps the existing segments and rebuilds the last record and size of every history. Records
+	 * are scanned up to the watermark of each segment rather than the last written one, as
+	 * concurrent appends may have left free records between written ones.
+	 */
+	private void recover() throws IOException {
+		while (Files.exists(directory.resolve(String.format("locations-%05d.seg", segments.size())))) {
+			segments.add(map(segments.size()));
+		}
+		long lastWritten = NO_RECORD;
+		for (int index = 0; index < segments.size(); index++) {
+			MappedByteBuffer segment = segments.get(index);
+			int watermark = Math.min(segment.getInt(WATERMARK), recordsPerSegment);
+			for (int slot = 0; slot < watermark; slot++) {
+				int position = HEADER_SIZE + slot * RECORD_SIZE;
+				long mostSignificantBits = segment.getLong(position + USER_ID_MOST_SIGNIFICANT_BITS);
+				if (mostSignificantBits == 0) {
+					continue;
+				}
+				long record = (long) index * recordsPerSegment + slot;
+				UUID userId = new UUID(mostSignificantBits, segment.getLong(position + USER_ID_LEAST_SIGNIFICANT_BITS));
+				boolean cleared = segment.getLong(position + TIME_VISITED) == CLEARED;
+				recoveredHistories.computeIfAbsent(userId,
+						id -> new MappedLocationHistory(this, id, NO_RECORD, 0)).recover(record, cleared);
+				lastWritten = record;
+			}
+		}
+		nextRecord.set(lastWritten + 1);
+		reservedRecord = lastWritten + 1;
+	}
+
+	private int segmentOf(long record) {
+		return (int) (record / recordsPerSegment);
+	}
+
+	private int positionOf(long record) {
+		return HEADER_SIZE + (int) (record % recordsPerSegment) * RECORD_SIZE;
+	}
+
+	@Override
+	public void close() {
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+	}
+}
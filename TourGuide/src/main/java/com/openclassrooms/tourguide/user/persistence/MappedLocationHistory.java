@@ -0,0 +1,93 @@
+package com.openclassrooms.tourguide.user.persistence;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.LocationHistory;
+
+/**
+ * {@link LocationHistory} of one user in a {@link LocationSegmentStore}. Only the number of the
+ * last record and the size of the history are kept on the heap; the locations are read from the
+ * mapped segments on demand, most recent first.
+ */
+final class MappedLocationHistory implements LocationHistory {
+
+	private final LocationSegmentStore store;
+	private final UUID userId;
+	private long lastRecord;
+	private int size;
+
+	MappedLocationHistory(LocationSegmentStore store, UUID userId, long lastRecord, int size) {
+		this.store = store;
+		this.userId = userId;
+		this.lastRecord = lastRecord;
+		this.size = size;
+	}
+
+	@Override
+	public synchronized void add(VisitedLocation visitedLocation) {
+		lastRecord = store.append(userId, visitedLocation, lastRecord);
+		size++;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public synchronized int position() {
+		return size;
+	}
+
+	@Override
+	public VisitedLocation last() {
+		long record;
+		synchronized (this) {
+			if (size == 0) {
+				return null;
+			}
+			record = lastRecord;
+		}
+		return store.read(userId, record);
+	}
+
+	/**
+	 * Walks the chain back from the last record. Written records never change, so only the head of
+	 * the chain is read under the lock.
+	 */
+	@Override
+	public List<VisitedLocation> since(int from) {
+		long record;
+		int count;
+		synchronized (this) {
+			record = lastRecord;
+			count = size - Math.max(0, from);
+		}
+		if (count <= 0) {
+			return List.of();
+		}
+		VisitedLocation[] locations = new VisitedLocation[count];
+		for (int i = count - 1; i >= 0; i--) {
+			locations[i] = store.read(userId, record);
+			record = store.previous(record);
+		}
+		return Arrays.asList(locations);
+	}
+
+	@Override
+	public synchronized void clear() {
+		lastRecord = store.appendClear(userId);
+		size = 0;
+	}
+
+	/**
+	 * Replays a record found by the scan of the segments.
+	 */
+	void recover(long record, boolean cleared) {
+		lastRecord = record;
+		size = cleared ? 0 : size + 1;
+	}
+}
@@ -0,0 +1,192 @@
+package com.openclassrooms.tourguide.user.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openclassrooms.tourguide.user.ShardedUserRepository;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserRepository;
+
+/**
+ * Disk-backed {@link UserRepository}, surviving restarts.
+ *
+ * <ul>
+ *   <li>The users are appended to {@code users.dat} (ID, name, phone number and email address) and
+ *       looked up through an in-memory {@link ShardedUserRepository}.</li>
+ *   <li>Their visited locations are stored in the memory-mapped segments of a
+ *       {@link LocationSegmentStore}, so the heap only holds the head of each history whatever its
+ *       length.</li>
+ * </ul>
+ *
+ * <p>On opening, the users file is read and the segments are scanned once, which takes seconds
+ * for millions of locations, instead of regenerating the users. The preferences, rewards and trip
+ * deals are not persisted: the rewards are derived from the locations and recomputed by the next
+ * reward calculation.
+ */
+public class PersistentUserRepository implements UserRepository, Closeable {
+
+	private static final String USERS_FILE = "users.dat";
+
+	private final Logger logger = LoggerFactory.getLogger(PersistentUserRepository.class);
+	private final ShardedUserRepository users;
+	private final LocationSegmentStore locations;
+	private final DataOutputStream usersOut;
+
+	public PersistentUserRepository(Path directory) throws IOException {
+		this(directory, ShardedUserRepository.DEFAULT_SHARD_COUNT, LocationSegmentStore.DEFAULT_RECORDS_PER_SEGMENT);
+	}
+
+	public PersistentUserRepository(Path directory, int shardCount, int recordsPerSegment) throws IOException {
+		this.users = new ShardedUserRepository(shardCount);
+		this.locations = new LocationSegmentStore(directory, recordsPerSegment);
+		Path usersFile = directory.resolve(USERS_FILE);
+		if (Files.exists(usersFile)) {
+			long length = loadUsers(usersFile);
+			try (FileChannel channel = FileChannel.open(usersFile, StandardOpenOption.WRITE)) {
+				// drops a user partially written when the process stopped
+				channel.truncate(length);
+			}
+		}
+		this.usersOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(usersFile,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+		logger.debug("Loaded " + users.size() + " users and " + locations.getRecordCount()
+				+ " location records from " + directory);
+	}
+
+	/**
+	 * @return The length of the complete user records of the file.
+	 */
+	private long loadUsers(Path usersFile) throws IOException {
+		byte[] bytes = Files.readAllBytes(usersFile);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		long length = 0;
+		try {
+			while (in.available() > 0) {
+				UUID userId = new UUID(in.readLong(), in.readLong());
+				String userName = in.readUTF();
+				String phoneNumber = readNullableUTF(in);
+				String emailAddress = readNullableUTF(in);
+				users.add(new User(userId, userName, phoneNumber, emailAddress, locations.openHistory(userId)));
+				length = bytes.length - in.available();
+			}
+		} catch (EOFException e) {
+			logger.warn("Ignoring the incomplete last user of " + usersFile);
+		}
+		return length;
+	}
+
+	/**
+	 * Adds the user, as a batch of one.
+	 */
+	@Override
+	public boolean add(User user) {
+		return addAll(List.of(user)) == 1;
+	}
+
+	/**
+	 * Adds the users whose name is not registered yet. They are written to the users file, flushed
+	 * once for the whole batch, before the locations they already have are moved to the segments
+	 * and they are published in memory, so a user found by the repository is always on disk.
+	 */
+	@Override
+	public int addAll(Collection<User> newUsers) {
+		synchronized (usersOut) {
+			Map<String, User> added = new LinkedHashMap<>();
+			for (User user : newUsers) {
+				if (users.findByUserName(user.getUserName()) == null) {
+					added.putIfAbsent(user.getUserName(), user);
+				}
+			}
+			try {
+				for (User user : added.values()) {
+					usersOut.writeLong(user.getUserId().getMostSignificantBits());
+					usersOut.writeLong(user.getUserId().getLeastSignificantBits());
+					usersOut.writeUTF(user.getUserName());
+					writeNullableUTF(usersOut, user.getPhoneNumber());
+					writeNullableUTF(usersOut, user.getEmailAddress());
+				}
+				usersOut.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot persist " + added.size() + " users", e);
+			}
+			for (User user : added.values()) {
+				user.setLocationHistory(locations.openHistory(user.getUserId()));
+				users.add(user);
+			}
+			return added.size();
+		}
+	}
+
+	@Override
+	public User findByUserName(String userName) {
+		return users.findByUserName(userName);
+	}
+
+	@Override
+	public int size() {
+		return users.size();
+	}
+
+	@Override
+	public int shardCount() {
+		return users.shardCount();
+	}
+
+	@Override
+	public Collection<User> shard(int shard) {
+		return users.shard(shard);
+	}
+
+	@Override
+	public Iterator<User> iterator() {
+		return users.iterator();
+	}
+
+	@Override
+	public Spliterator<User> spliterator() {
+		return users.spliterator();
+	}
+
+	public LocationSegmentStore getLocationStore() {
+		return locations;
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (usersOut) {
+			usersOut.close();
+		}
+		locations.close();
+	}
+
+	private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readNullableUTF(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
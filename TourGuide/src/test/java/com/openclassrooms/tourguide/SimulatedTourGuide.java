@@ -0,0 +1,102 @@
+package com.openclassrooms.tourguide;
+
+import java.util.concurrent.ExecutorService;
+
+import com.openclassrooms.tourguide.concurrent.DependencyLimiters;
+import com.openclassrooms.tourguide.concurrent.TourGuideExecutors;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedGps;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedRewardCentral;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedTripPricer;
+import com.openclassrooms.tourguide.dependency.simulation.SimulationSettings;
+import com.openclassrooms.tourguide.event.EventBus;
+import com.openclassrooms.tourguide.helper.InternalUserSettings;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
+import com.openclassrooms.tourguide.user.ShardedUserRepository;
+import com.openclassrooms.tourguide.user.UserRepository;
+
+/**
+ * Services of the tests, over the simulated dependencies without latency and with the 26
+ * attractions of gpsUtil. The internal users are the ones set by {@code InternalTestHelper}.
+ *
+ * <p>The tracker is stopped unless the tracker settings are given. Closing the fixture stops the
+ * tracker and shuts down the executor it created.
+ */
+final class SimulatedTourGuide implements AutoCloseable {
+
+	static final SimulationSettings SIMULATION = SimulationSettings.zeroLatency(42);
+
+	final SimulatedGps gps;
+	final ExecutorService executor;
+	final RewardsService rewardsService;
+	final TourGuideService tourGuideService;
+
+	private SimulatedTourGuide(Builder builder) {
+		gps = new SimulatedGps(SIMULATION, 26);
+		executor = TourGuideExecutors.createDefault();
+		DependencyLimiters limiters = DependencyLimiters.unbounded(executor);
+		rewardsService = new RewardsService(gps, new SimulatedRewardCentral(builder.rewardCentral), executor,
+				limiters, builder.eventBus != null ? builder.eventBus : new EventBus(executor));
+		TrackerSettings trackerSettings = builder.trackerSettings != null ? builder.trackerSettings : TrackerSettings.defaults();
+		tourGuideService = new TourGuideService(gps, rewardsService, new SimulatedTripPricer(SIMULATION), executor,
+				limiters, trackerSettings, builder.userRepository, builder.internalUserSettings);
+		if (builder.trackerSettings == null) {
+			tourGuideService.tracker.stopTracking();
+		}
+	}
+
+	static SimulatedTourGuide start() {
+		return builder().start();
+	}
+
+	static Builder builder() {
+		return new Builder();
+	}
+
+	@Override
+	public void close() {
+		tourGuideService.tracker.stopTracking();
+		executor.shutdownNow();
+	}
+
+	static final class Builder {
+
+		private SimulationSettings rewardCentral = SIMULATION;
+		private EventBus eventBus;
+		private TrackerSettings trackerSettings;
+		private UserRepository userRepository = new ShardedUserRepository();
+		private InternalUserSettings internalUserSettings = InternalUserSettings.defaults();
+
+		private Builder() {
+		}
+
+		Builder rewardCentral(SimulationSettings rewardCentral) {
+			this.rewardCentral = rewardCentral;
+			return this;
+		}
+
+		Builder eventBus(EventBus eventBus) {
+			this.eventBus = eventBus;
+			return this;
+		}
+
+		/**
+		 * Keeps the tracker running with the given settings, over the given repository.
+		 */
+		Builder tracking(TrackerSettings trackerSettings, UserRepository userRepository) {
+			this.trackerSettings = trackerSettings;
+			this.userRepository = userRepository;
+			return this;
+		}
+
+		Builder internalUsers(InternalUserSettings internalUserSettings) {
+			this.internalUserSettings = internalUserSettings;
+			return this;
+		}
+
+		SimulatedTourGuide start() {
+			return new SimulatedTourGuide(this);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.tracker.AdaptiveTrackingPolicy;
+import com.openclassrooms.tourguide.tracker.AdaptiveTrackingSettings;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestAdaptiveTrackingPolicy {
+
+	private static final AdaptiveTrackingSettings SETTINGS = new AdaptiveTrackingSettings(true,
+			Duration.ofMinutes(5), Duration.ofMinutes(30), 20, 0.1, 60);
+
+	@Test
+	public void userNearAnAttractionIsPolledAtTheMinimumInterval() {
+		AdaptiveTrackingPolicy policy = new AdaptiveTrackingPolicy(SETTINGS, location -> 5);
+		User user = userAt(new Location(10, 10), new Location(10.5, 10.5));
+
+		assertEquals(Duration.ofMinutes(5), policy.nextInterval(user));
+	}
+
+	@Test
+	public void movingUserIsPolledBeforeReachingTheNearestAttraction() {
+		// 30 miles to go beyond the 20 miles threshold at 60 mph
+		AdaptiveTrackingPolicy policy = new AdaptiveTrackingPolicy(SETTINGS, location -> 50);
+		User user = userAt(new Location(10, 10), new Location(10.5, 10.5));
+
+		assertEquals(Duration.ofMinutes(30), policy.nextInterval(user));
+	}
+
+	@Test
+	public void stationaryUserIsPolledLessOften() {
+		AdaptiveTrackingPolicy policy = new AdaptiveTrackingPolicy(SETTINGS, location -> 25);
+		User moving = userAt(new Location(10, 10), new Location(10.5, 10.5));
+		User stationary = userAt(new Location(10, 10), new Location(10, 10));
+
+		assertEquals(Duration.ofMinutes(5), policy.nextInterval(moving));
+		assertEquals(Duration.ofMinutes(30), policy.nextInterval(stationary));
+	}
+
+	@Test
+	public void onlyTheRecentLocationsAreRead() {
+		AdaptiveTrackingPolicy policy = new AdaptiveTrackingPolicy(SETTINGS, location -> 25);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Instant now = Instant.now();
+		// a long trip, then the user stays for the last ten locations
+		for (int i = 100; i > 0; i--) {
+			Location location = i > 10 ? new Location(i, i) : new Location(10, 10);
+			user.addToVisitedLocations(new VisitedLocation(user.getUserId(), location, Date.from(now.minus(Duration.ofHours(i)))));
+		}
+
+		assertEquals(11, user.getRecentVisitedLocations(11).size());
+		assertEquals(user.getLastVisitedLocation().timeVisited, user.getRecentVisitedLocations(11).get(10).timeVisited);
+		assertEquals(Duration.ofMinutes(30), policy.nextInterval(user));
+	}
+
+	@Test
+	public void disabledPolicyPollsEveryCycle() {
+		AdaptiveTrackingPolicy policy = new AdaptiveTrackingPolicy(AdaptiveTrackingSettings.disabled(), location -> 1000);
+
+		assertEquals(Duration.ZERO, policy.nextInterval(userAt(new Location(10, 10), new Location(10, 10))));
+	}
+
+	/**
+	 * Creates a user whose history is the previous location one hour ago, then the latest one now.
+	 */
+	private static User userAt(Location previous, Location latest) {
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Instant now = Instant.now();
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), previous, Date.from(now.minus(Duration.ofHours(1)))));
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), latest, Date.from(now)));
+		return user;
+	}
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.attraction.AttractionIndex;
+import com.openclassrooms.tourguide.attraction.GeoDistance;
+import com.openclassrooms.tourguide.attraction.GeoPoint;
+
+public class TestAttractionIndex {
+
+	@Test
+	public void withinDistanceMatchesBruteForce() {
+		Random random = new Random(42);
+		List<Attraction> attractions = randomAttractions(random, 2000);
+		AttractionIndex index = new AttractionIndex(attractions);
+
+		for (double miles : new double[] { 0, 10, 200, 1500, 8000, Integer.MAX_VALUE }) {
+			for (int i = 0; i < 200; i++) {
+				Location location = randomLocation(random);
+				double threshold = GeoDistance.squaredChordWithin(miles);
+				List<Attraction> expected = attractions.stream()
+						.filter(attraction -> GeoDistance.isWithin(GeoPoint.of(attraction), GeoPoint.of(location), threshold))
+						.toList();
+
+				assertEquals(expected, index.withinDistance(location, miles));
+			}
+		}
+	}
+
+	@Test
+	public void withinDistanceFindsAttractionAtSameLocation() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		AttractionIndex index = new AttractionIndex(attractions);
+
+		for (Attraction attraction : attractions) {
+			assertEquals(true, index.withinDistance(attraction, 10).contains(attraction));
+		}
+	}
+
+	@Test
+	public void nearestMatchesBruteForce() {
+		Random random = new Random(7);
+		List<Attraction> attractions = randomAttractions(random, 2000);
+		AttractionIndex index = new AttractionIndex(attractions);
+
+		for (int k : new int[] { 1, 5, 50 }) {
+			for (int i = 0; i < 200; i++) {
+				Location location = randomLocation(random);
+				List<Attraction> expected = attractions.stream()
+						.sorted(Comparator.comparingDouble(attraction -> GeoDistance.distance(attraction, location)))
+						.limit(k)
+						.toList();
+
+				assertEquals(expected, index.nearest(location, k));
+			}
+		}
+	}
+
+	@Test
+	public void nearestReturnsEveryAttractionWhenKIsLarger() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		AttractionIndex index = new AttractionIndex(attractions);
+
+		assertEquals(attractions.size(), index.nearest(new Location(0, 0), attractions.size() + 10).size());
+	}
+
+	private static List<Attraction> randomAttractions(Random random, int count) {
+		List<Attraction> attractions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Location location = randomLocation(random);
+			attractions.add(new Attraction("attraction" + i, "city", "state", location.latitude, location.longitude));
+		}
+		return attractions;
+	}
+
+	private static Location randomLocation(Random random) {
+		return new Location(-85 + random.nextDouble() * 170, -180 + random.nextDouble() * 360);
+	}
+}
@@ -0,0 +1,114 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.attraction.AttractionIndex;
+import com.openclassrooms.tourguide.attraction.AttractionTable;
+import com.openclassrooms.tourguide.attraction.GeoDistance;
+import com.openclassrooms.tourguide.attraction.GeoPoint;
+import com.openclassrooms.tourguide.attraction.NearestAttractions;
+
+public class TestAttractionTable {
+
+	@Test
+	public void idsMapToAttractions() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		AttractionTable table = new AttractionTable(attractions);
+
+		assertEquals(attractions.size(), table.size());
+		for (int id = 0; id < table.size(); id++) {
+			assertEquals(attractions.get(id), table.attraction(id));
+			assertEquals(id, table.idOf(attractions.get(id).attractionId));
+			assertEquals(GeoPoint.of(attractions.get(id)), table.point(id));
+		}
+		assertEquals(-1, table.idOf(UUID.randomUUID()));
+	}
+
+	@Test
+	public void distancesMatchGeoDistance() {
+		Random random = new Random(3);
+		AttractionTable table = new AttractionTable(randomAttractions(random, 500));
+		double[] distances = new double[table.size()];
+
+		for (int i = 0; i < 100; i++) {
+			Location location = randomLocation(random);
+			table.distances(GeoPoint.of(location), distances);
+			for (int id = 0; id < table.size(); id++) {
+				assertEquals(GeoDistance.distance(table.attraction(id), location), distances[id]);
+			}
+		}
+	}
+
+	@Test
+	public void withinMatchesIndex() {
+		Random random = new Random(4);
+		AttractionTable table = new AttractionTable(randomAttractions(random, 2000));
+		AttractionIndex index = new AttractionIndex(table);
+		double[] chords = new double[table.size()];
+		int[] tableIds = new int[table.size()];
+		int[] indexIds = new int[table.size()];
+
+		for (double miles : new double[] { 10, 500, 5000 }) {
+			double threshold = GeoDistance.squaredChordWithin(miles);
+			for (int i = 0; i < 100; i++) {
+				GeoPoint point = GeoPoint.of(randomLocation(random));
+				int count = table.within(point, threshold, chords, tableIds);
+
+				assertEquals(count, index.withinDistance(point, threshold, indexIds));
+				assertArrayEquals(Arrays.copyOf(tableIds, count), Arrays.copyOf(indexIds, count));
+			}
+		}
+	}
+
+	@Test
+	public void nearestMatchesSortedScan() {
+		Random random = new Random(5);
+		AttractionTable table = new AttractionTable(randomAttractions(random, 300));
+		double[] chords = new double[table.size()];
+
+		for (int k : new int[] { 0, 1, 5, 50, 300, 400 }) {
+			for (int i = 0; i < 100; i++) {
+				GeoPoint point = GeoPoint.of(randomLocation(random));
+				List<Integer> expected = IntStream.range(0, table.size()).boxed()
+						.sorted(Comparator.comparingDouble(id -> table.squaredChord(id, point)))
+						.limit(k)
+						.toList();
+
+				NearestAttractions nearest = table.nearest(point, k, chords);
+
+				assertEquals(expected.size(), nearest.size());
+				for (int rank = 0; rank < nearest.size(); rank++) {
+					assertEquals(expected.get(rank).intValue(), nearest.id(rank));
+					assertEquals(table.distance(nearest.id(rank), point), nearest.distance(rank));
+				}
+			}
+		}
+	}
+
+	private static List<Attraction> randomAttractions(Random random, int count) {
+		List<Attraction> attractions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Location location = randomLocation(random);
+			attractions.add(new Attraction("attraction" + i, "city", "state", location.latitude, location.longitude));
+		}
+		return attractions;
+	}
+
+	private static Location randomLocation(Random random) {
+		return new Location(-85 + random.nextDouble() * 170, -180 + random.nextDouble() * 360);
+	}
+}
@@ -0,0 +1,92 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.concurrent.ConcurrencyLimiter;
+import com.openclassrooms.tourguide.concurrent.RejectionPolicy;
+
+public class TestConcurrencyLimiter {
+
+	@Test
+	public void callsBeyondTheLimitWaitInTheQueue() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", executor, 1, 10, RejectionPolicy.REJECT);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<Integer> first = limiter.submit(() -> {
+			await(release);
+			return 1;
+		});
+		CompletableFuture<Integer> second = limiter.submit(() -> 2);
+
+		assertEquals(1, limiter.getActiveCount());
+		assertEquals(1, limiter.getQueueDepth());
+		assertFalse(second.isDone());
+
+		release.countDown();
+		assertEquals(1, first.get());
+		assertEquals(2, second.get());
+		assertEquals(0, limiter.getQueueDepth());
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void fullQueueRejectsCalls() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", executor, 1, 1, RejectionPolicy.REJECT);
+		CountDownLatch release = new CountDownLatch(1);
+
+		limiter.submit(() -> {
+			await(release);
+			return 1;
+		});
+		limiter.submit(() -> 2);
+		CompletableFuture<Integer> rejected = limiter.submit(() -> 3);
+
+		CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+		assertTrue(exception.getCause() instanceof RejectedExecutionException);
+		assertEquals(1, limiter.getRejectedCount());
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void fullQueueRunsCallsInTheCallerThread() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", executor, 1, 0, RejectionPolicy.CALLER_RUNS);
+		CountDownLatch release = new CountDownLatch(1);
+
+		limiter.submit(() -> {
+			await(release);
+			return 1;
+		});
+		Thread caller = Thread.currentThread();
+		CompletableFuture<Thread> callerRun = limiter.submit(Thread::currentThread);
+
+		assertSame(caller, callerRun.join());
+		assertEquals(1, limiter.getCallerRunsCount());
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
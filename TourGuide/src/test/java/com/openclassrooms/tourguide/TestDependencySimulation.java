@@ -0,0 +1,101 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import tripPricer.Provider;
+import com.openclassrooms.tourguide.dependency.simulation.LatencyModel;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedFailureException;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedGps;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedRewardCentral;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedTripPricer;
+import com.openclassrooms.tourguide.dependency.simulation.SimulationSettings;
+
+public class TestDependencySimulation {
+
+	@Test
+	public void sameSeedGivesSameAnswers() {
+		SimulationSettings settings = SimulationSettings.zeroLatency(7);
+		SimulatedRewardCentral first = new SimulatedRewardCentral(settings);
+		SimulatedRewardCentral second = new SimulatedRewardCentral(settings);
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+
+		for (int i = 0; i < 100; i++) {
+			int points = first.getAttractionRewardPoints(attractionId, userId);
+			assertEquals(points, second.getAttractionRewardPoints(attractionId, userId));
+			assertTrue(points >= 1 && points <= 1000);
+		}
+
+		List<Attraction> attractions = new SimulatedGps(settings, 26).getAttractions();
+		List<Attraction> sameAttractions = new SimulatedGps(settings, 26).getAttractions();
+		assertEquals(26, attractions.size());
+		for (int i = 0; i < attractions.size(); i++) {
+			assertEquals(attractions.get(i).attractionName, sameAttractions.get(i).attractionName);
+			assertEquals(attractions.get(i).latitude, sameAttractions.get(i).latitude);
+			assertEquals(attractions.get(i).longitude, sameAttractions.get(i).longitude);
+		}
+	}
+
+	@Test
+	public void errorRateFailsThatFractionOfCalls() {
+		SimulatedRewardCentral rewardCentral = new SimulatedRewardCentral(
+				new SimulationSettings(1, LatencyModel.zero(), 0.2));
+		int failures = 0;
+		for (int i = 0; i < 10_000; i++) {
+			try {
+				rewardCentral.getAttractionRewardPoints(UUID.randomUUID(), UUID.randomUUID());
+			} catch (SimulatedFailureException e) {
+				failures++;
+			}
+		}
+
+		assertEquals(10_000, rewardCentral.getCallCount());
+		assertEquals(failures, rewardCentral.getFailureCount());
+		assertTrue(failures > 1_800 && failures < 2_200, "failures: " + failures);
+	}
+
+	@Test
+	public void latencyModelsFollowTheirDistribution() {
+		SplittableRandom random = new SplittableRandom(3);
+		assertEquals(0, LatencyModel.zero().sampleNanos(random));
+		assertEquals(Duration.ofMillis(20).toNanos(), LatencyModel.fixed(Duration.ofMillis(20)).sampleNanos(random));
+
+		long[] samples = new long[10_001];
+		LatencyModel logNormal = LatencyModel.logNormal(Duration.ofMillis(100), 0.5);
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = logNormal.sampleNanos(random);
+		}
+		Arrays.sort(samples);
+		double median = samples[samples.length / 2] / 1e6;
+		assertTrue(median > 95 && median < 105, "median: " + median);
+
+		LatencyModel spikes = LatencyModel.zero().withSpikes(0.1, Duration.ofSeconds(1));
+		int spiked = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (spikes.sampleNanos(random) > 0) {
+				spiked++;
+			}
+		}
+		assertTrue(spiked > 900 && spiked < 1_100, "spikes: " + spiked);
+	}
+
+	@Test
+	public void tripPricerReturnsFiveDistinctProviders() {
+		SimulatedTripPricer tripPricer = new SimulatedTripPricer(SimulationSettings.zeroLatency(5));
+
+		List<Provider> providers = tripPricer.getPrice("key", UUID.randomUUID(), 2, 1, 7, 100);
+
+		assertEquals(5, providers.size());
+		assertEquals(5, providers.stream().map(provider -> provider.name).distinct().count());
+	}
+}
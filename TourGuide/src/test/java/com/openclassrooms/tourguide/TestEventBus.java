@@ -0,0 +1,188 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.event.EventBus;
+import com.openclassrooms.tourguide.event.EventSubscription;
+import com.openclassrooms.tourguide.event.LocationTracked;
+import com.openclassrooms.tourguide.event.OverflowPolicy;
+import com.openclassrooms.tourguide.event.RewardGranted;
+import com.openclassrooms.tourguide.event.TourGuideEvent;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestEventBus {
+
+	private final UUID jon = UUID.randomUUID();
+	private final UUID jane = UUID.randomUUID();
+
+	@Test
+	public void subscriptionsReceiveTheEventsOfTheirUser() {
+		ManualExecutor executor = new ManualExecutor();
+		EventBus bus = new EventBus(executor);
+		List<TourGuideEvent> jonEvents = new ArrayList<>();
+		List<TourGuideEvent> allEvents = new ArrayList<>();
+		bus.subscribe(jon, jonEvents::add);
+		bus.subscribe(null, allEvents::add);
+
+		bus.publish(location(jon, 1));
+		bus.publish(location(jane, 1));
+		bus.publish(new RewardGranted(jon, "Disneyland", 100));
+		executor.runAll();
+
+		assertEquals(List.of(location(jon, 1), new RewardGranted(jon, "Disneyland", 100)), jonEvents);
+		assertEquals(3, allEvents.size());
+	}
+
+	@Test
+	public void dropOldestKeepsTheLatestEvents() {
+		ManualExecutor executor = new ManualExecutor();
+		EventBus bus = new EventBus(executor);
+		List<TourGuideEvent> events = new ArrayList<>();
+		EventSubscription subscription = bus.subscribe(null, 2, OverflowPolicy.DROP_OLDEST, events::add);
+
+		for (int i = 0; i < 5; i++) {
+			bus.publish(new RewardGranted(jon, "attraction" + i, i));
+		}
+		executor.runAll();
+
+		assertEquals(List.of(new RewardGranted(jon, "attraction3", 3), new RewardGranted(jon, "attraction4", 4)), events);
+		assertEquals(3, subscription.getDroppedCount());
+	}
+
+	@Test
+	public void dropNewestKeepsTheBufferedEvents() {
+		ManualExecutor executor = new ManualExecutor();
+		EventBus bus = new EventBus(executor);
+		List<TourGuideEvent> events = new ArrayList<>();
+		EventSubscription subscription = bus.subscribe(null, 2, OverflowPolicy.DROP_NEWEST, events::add);
+
+		for (int i = 0; i < 5; i++) {
+			bus.publish(new RewardGranted(jon, "attraction" + i, i));
+		}
+		executor.runAll();
+
+		assertEquals(List.of(new RewardGranted(jon, "attraction0", 0), new RewardGranted(jon, "attraction1", 1)), events);
+		assertEquals(3, subscription.getDroppedCount());
+	}
+
+	@Test
+	public void coalescedLocationsKeepOnlyTheLatestOfEachUser() {
+		ManualExecutor executor = new ManualExecutor();
+		EventBus bus = new EventBus(executor);
+		List<TourGuideEvent> events = new ArrayList<>();
+		EventSubscription subscription = bus.subscribe(null, 2, OverflowPolicy.COALESCE_LOCATIONS, events::add);
+
+		bus.publish(location(jon, 1));
+		bus.publish(location(jane, 1));
+		bus.publish(location(jon, 2));
+		bus.publish(location(jon, 3));
+		bus.publish(location(jane, 2));
+		executor.runAll();
+
+		// the locations take the place of the first one of their user
+		assertEquals(List.of(location(jon, 3), location(jane, 2)), events);
+		assertEquals(3, subscription.getCoalescedCount());
+		assertEquals(0, subscription.getDroppedCount());
+
+		bus.publish(location(jon, 4));
+		executor.runAll();
+		assertEquals(location(jon, 4), events.get(2));
+	}
+
+	@Test
+	public void busySubscriberYieldsItsThreadBetweenDrains() {
+		ManualExecutor executor = new ManualExecutor();
+		EventBus bus = new EventBus(executor);
+		List<TourGuideEvent> events = new ArrayList<>();
+		bus.subscribe(null, 256, OverflowPolicy.DROP_OLDEST, events::add);
+
+		for (int i = 0; i < 100; i++) {
+			bus.publish(new RewardGranted(jon, "attraction" + i, i));
+		}
+		executor.runNext();
+
+		// 64 events per drain, then the rest is left to a new task
+		assertEquals(64, events.size());
+		assertEquals(1, executor.tasks.size());
+		executor.runAll();
+		assertEquals(100, events.size());
+		assertEquals(new RewardGranted(jon, "attraction99", 99), events.get(99));
+	}
+
+	@Test
+	public void failingSubscriberIsCancelled() {
+		ManualExecutor executor = new ManualExecutor();
+		EventBus bus = new EventBus(executor);
+		EventSubscription subscription = bus.subscribe(jon, event -> {
+			throw new IllegalStateException("client gone");
+		});
+		assertEquals(1, bus.getSubscriptionCount());
+
+		bus.publish(location(jon, 1));
+		executor.runAll();
+		bus.publish(location(jon, 2));
+
+		assertTrue(subscription.isCancelled());
+		assertEquals(0, bus.getSubscriptionCount());
+		assertEquals(0, executor.tasks.size());
+	}
+
+	@Test
+	public void trackingPublishesTheLocationAndTheRewards() {
+		InternalTestHelper.setInternalUserNumber(0);
+		// delivered on the publishing thread, so the events are all received when tracking completes
+		EventBus bus = new EventBus(Runnable::run);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.builder().eventBus(bus).start()) {
+			User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+			Attraction attraction = tourGuide.rewardsService.getAttractions().get(0);
+			user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+			List<TourGuideEvent> events = Collections.synchronizedList(new ArrayList<>());
+			bus.subscribe(user.getUserId(), events::add);
+
+			VisitedLocation visitedLocation = tourGuide.tourGuideService.trackUserLocation(user).join();
+
+			assertEquals(LocationTracked.of(visitedLocation), events.get(0));
+			List<TourGuideEvent> rewards = events.stream().filter(RewardGranted.class::isInstance).toList();
+			assertEquals(user.getUserRewards().size(), rewards.size());
+			assertTrue(rewards.contains(new RewardGranted(user.getUserId(), attraction.attractionName,
+					user.getUserRewards().get(0).getRewardPoints())));
+		}
+	}
+
+	private static LocationTracked location(UUID userId, int time) {
+		return new LocationTracked(userId, time, time, time);
+	}
+
+	private static final class ManualExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		void runNext() {
+			tasks.remove(0).run();
+		}
+
+		void runAll() {
+			while (!tasks.isEmpty()) {
+				runNext();
+			}
+		}
+	}
+}
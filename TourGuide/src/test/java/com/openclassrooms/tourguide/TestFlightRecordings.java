@@ -0,0 +1,70 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.profiling.FlightRecordings;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestFlightRecordings {
+
+	@Test
+	public void dumpContainsTheTourGuideEvents() throws Exception {
+		InternalTestHelper.setInternalUserNumber(0);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		FlightRecordings recordings = new FlightRecordings(Files.createTempDirectory("jfr"), Duration.ofMinutes(5));
+
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.start()) {
+			TourGuideService tourGuideService = tourGuide.tourGuideService;
+			Attraction attraction = tourGuide.rewardsService.getAttractions().get(0);
+			user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+			recordings.start(null);
+
+			VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user).join();
+			tourGuideService.getNearByAttractions(visitedLocation, 3);
+			Path dump = recordings.dump();
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+			Set<String> names = events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toSet());
+			assertTrue(names.containsAll(Set.of("com.openclassrooms.tourguide.UserTrack",
+					"com.openclassrooms.tourguide.RewardScan", "com.openclassrooms.tourguide.RewardLookup",
+					"com.openclassrooms.tourguide.NearbyAttractions")));
+			RecordedEvent nearby = events.stream()
+					.filter(event -> event.getEventType().getName().equals("com.openclassrooms.tourguide.NearbyAttractions"))
+					.findFirst().orElseThrow();
+			assertEquals(3, nearby.getInt("returned"));
+			assertEquals(26, nearby.getInt("candidatesExamined"));
+			assertEquals(dump.toString(), recordings.status().lastDump());
+		} finally {
+			recordings.stop();
+		}
+		assertFalse(recordings.status().running());
+	}
+
+	@Test
+	public void dumpWithoutRecordingFails() throws Exception {
+		FlightRecordings recordings = new FlightRecordings(Files.createTempDirectory("jfr"), Duration.ofMinutes(5));
+
+		assertThrows(IllegalStateException.class, recordings::dump);
+		assertThrows(IllegalArgumentException.class, () -> recordings.start("unknown"));
+	}
+}
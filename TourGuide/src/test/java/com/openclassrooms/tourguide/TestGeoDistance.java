@@ -0,0 +1,70 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Location;
+import com.openclassrooms.tourguide.attraction.GeoDistance;
+import com.openclassrooms.tourguide.attraction.GeoPoint;
+
+public class TestGeoDistance {
+
+	@Test
+	public void distanceMatchesLawOfCosinesWithinTolerance() {
+		Random random = new Random(11);
+		for (int i = 0; i < 100_000; i++) {
+			Location from = randomLocation(random);
+			// half of the pairs are a few miles apart, where the proximity buffer is compared
+			Location to = i % 2 == 0 ? randomLocation(random)
+					: new Location(from.latitude + (random.nextDouble() - 0.5) * 0.3,
+							from.longitude + (random.nextDouble() - 0.5) * 0.3);
+
+			assertEquals(lawOfCosines(from, to), GeoDistance.distance(from, to), GeoDistance.LEGACY_TOLERANCE_MILES);
+		}
+	}
+
+	@Test
+	public void isWithinAgreesWithDistance() {
+		Random random = new Random(12);
+		for (double miles : new double[] { 0.5, 10, 200, 5000 }) {
+			double threshold = GeoDistance.squaredChordWithin(miles);
+			for (int i = 0; i < 20_000; i++) {
+				GeoPoint from = GeoPoint.of(randomLocation(random));
+				GeoPoint to = GeoPoint.of(randomLocation(random));
+				double distance = GeoDistance.distance(from, to);
+				if (Math.abs(distance - miles) > GeoDistance.LEGACY_TOLERANCE_MILES) {
+					assertEquals(distance <= miles, GeoDistance.isWithin(from, to, threshold));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void thresholdBounds() {
+		GeoPoint point = GeoPoint.of(new Location(48.8566, 2.3522));
+		GeoPoint antipode = GeoPoint.of(new Location(-48.8566, -177.6478));
+
+		assertTrue(GeoDistance.isWithin(point, point, GeoDistance.squaredChordWithin(0)));
+		assertTrue(!GeoDistance.isWithin(point, point, GeoDistance.squaredChordWithin(-1)));
+		assertTrue(GeoDistance.isWithin(point, antipode, GeoDistance.squaredChordWithin(Integer.MAX_VALUE)));
+		assertEquals(180 * GeoDistance.STATUTE_MILES_PER_DEGREE, GeoDistance.distance(point, antipode), 1e-3);
+	}
+
+	private static double lawOfCosines(Location loc1, Location loc2) {
+		double lat1 = Math.toRadians(loc1.latitude);
+		double lon1 = Math.toRadians(loc1.longitude);
+		double lat2 = Math.toRadians(loc2.latitude);
+		double lon2 = Math.toRadians(loc2.longitude);
+		double angle = Math.acos(Math.min(1, Math.sin(lat1) * Math.sin(lat2)
+				+ Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2)));
+		return GeoDistance.STATUTE_MILES_PER_NAUTICAL_MILE * 60 * Math.toDegrees(angle);
+	}
+
+	private static Location randomLocation(Random random) {
+		return new Location(-85 + random.nextDouble() * 170, -180 + random.nextDouble() * 360);
+	}
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.helper.InternalUserSettings;
+import com.openclassrooms.tourguide.helper.InternalUserSnapshot;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestInternalUsers {
+
+	private static final Instant REFERENCE_TIME = Instant.parse("2024-01-01T00:00:00Z");
+	// more than two chunks of the generator
+	private static final int USER_COUNT = 2 * InternalUserGenerator.CHUNK_SIZE + 100;
+
+	@Test
+	public void sameSeedGeneratesSameUsers() {
+		User[] users = new InternalUserGenerator(42, REFERENCE_TIME).generate(USER_COUNT);
+		User[] again = new InternalUserGenerator(42, REFERENCE_TIME).generate(USER_COUNT);
+
+		assertEquals(USER_COUNT, users.length);
+		for (int i = 0; i < USER_COUNT; i++) {
+			assertEquals("internalUser" + i, users[i].getUserName());
+			assertUser(users[i], again[i]);
+		}
+		assertEquals(InternalUserGenerator.LOCATIONS_PER_USER, users[0].getVisitedLocations().size());
+		assertTrue(users[0].getLastVisitedLocation().timeVisited.toInstant().isBefore(REFERENCE_TIME.plusSeconds(1)));
+		assertNotEquals(users[0].getUserId(), new InternalUserGenerator(43, REFERENCE_TIME).generate(1)[0].getUserId());
+	}
+
+	@Test
+	public void snapshotKeepsTheUsersOfItsSettings() throws IOException {
+		Path snapshot = Files.createTempDirectory("snapshot").resolve("internal-users.dat");
+		try {
+			User[] users = new InternalUserGenerator(42, REFERENCE_TIME).generate(USER_COUNT);
+			InternalUserSnapshot.write(snapshot, 42, REFERENCE_TIME, users);
+
+			User[] loaded = InternalUserSnapshot.read(snapshot, 42, USER_COUNT, REFERENCE_TIME);
+			for (int i = 0; i < USER_COUNT; i++) {
+				assertUser(users[i], loaded[i]);
+			}
+			assertNull(InternalUserSnapshot.read(snapshot, 43, USER_COUNT, REFERENCE_TIME));
+			assertNull(InternalUserSnapshot.read(snapshot, 42, USER_COUNT + 1, REFERENCE_TIME));
+			assertNull(InternalUserSnapshot.read(snapshot.resolveSibling("missing.dat"), 42, USER_COUNT, REFERENCE_TIME));
+		} finally {
+			Files.deleteIfExists(snapshot);
+			Files.delete(snapshot.getParent());
+		}
+	}
+
+	@Test
+	public void snapshotReadOnALaterDayIsShiftedToIt() throws IOException {
+		Path snapshot = Files.createTempDirectory("snapshot").resolve("internal-users.dat");
+		try {
+			InternalUserSnapshot.write(snapshot, 42, REFERENCE_TIME, new InternalUserGenerator(42, REFERENCE_TIME).generate(USER_COUNT));
+			Instant laterDay = REFERENCE_TIME.plus(Duration.ofDays(3));
+
+			User[] loaded = InternalUserSnapshot.read(snapshot, 42, USER_COUNT, laterDay);
+
+			User[] generated = new InternalUserGenerator(42, laterDay).generate(USER_COUNT);
+			for (int i = 0; i < USER_COUNT; i++) {
+				assertUser(generated[i], loaded[i]);
+			}
+		} finally {
+			Files.deleteIfExists(snapshot);
+			Files.delete(snapshot.getParent());
+		}
+	}
+
+	@Test
+	public void serviceLoadsTheUsersItGeneratedFromTheSnapshot() throws IOException {
+		Path snapshot = Files.createTempDirectory("snapshot").resolve("internal-users.dat");
+		InternalTestHelper.setInternalUserNumber(100);
+		try {
+			InternalUserSettings settings = new InternalUserSettings(7, snapshot);
+			User generated;
+			try (SimulatedTourGuide tourGuide = SimulatedTourGuide.builder().internalUsers(settings).start()) {
+				generated = tourGuide.tourGuideService.getUser("internalUser42");
+			}
+			assertTrue(Files.exists(snapshot));
+
+			try (SimulatedTourGuide tourGuide = SimulatedTourGuide.builder().internalUsers(settings).start()) {
+				assertUser(generated, tourGuide.tourGuideService.getUser("internalUser42"));
+			}
+		} finally {
+			Files.deleteIfExists(snapshot);
+			Files.delete(snapshot.getParent());
+		}
+	}
+
+	private static void assertUser(User expected, User actual) {
+		assertEquals(expected.getUserId(), actual.getUserId());
+		assertEquals(expected.getUserName(), actual.getUserName());
+		assertEquals(expected.getEmailAddress(), actual.getEmailAddress());
+		List<VisitedLocation> expectedLocations = expected.getVisitedLocations();
+		List<VisitedLocation> actualLocations = actual.getVisitedLocations();
+		assertEquals(expectedLocations.size(), actualLocations.size());
+		for (int i = 0; i < expectedLocations.size(); i++) {
+			assertEquals(expectedLocations.get(i).location.latitude, actualLocations.get(i).location.latitude, 0.0);
+			assertEquals(expectedLocations.get(i).location.longitude, actualLocations.get(i).location.longitude, 0.0);
+			assertEquals(expectedLocations.get(i).timeVisited, actualLocations.get(i).timeVisited);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.LocationHistory;
+import com.openclassrooms.tourguide.user.LocationHistorySettings;
+import com.openclassrooms.tourguide.user.RingBufferLocationHistory;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestLocationHistory {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+
+	@Test
+	public void keepsTheMostRecentLocationsUpToItsCapacity() {
+		LocationHistory history = history(new LocationHistorySettings(4, Duration.ZERO, 0, Duration.ZERO));
+		assertNull(history.last());
+
+		for (int i = 0; i < 10; i++) {
+			history.add(visit(i, i * 1000L));
+		}
+
+		assertEquals(4, history.size());
+		assertEquals(10, history.position());
+		assertEquals(9.0, history.last().location.latitude, 0.0);
+		assertEquals(List.of(6.0, 7.0, 8.0, 9.0), latitudes(history.since(0)));
+		assertEquals(List.of(8.0, 9.0), latitudes(history.since(8)));
+		assertTrue(history.since(10).isEmpty());
+	}
+
+	@Test
+	public void dropsLocationsPastTheRetention() {
+		LocationHistory history = history(new LocationHistorySettings(16, Duration.ofSeconds(10), 0, Duration.ZERO));
+
+		for (int i = 0; i < 8; i++) {
+			history.add(visit(i, i * 5000L));
+		}
+
+		// the most recent location is at 35s, so the ones before 25s are dropped
+		assertEquals(List.of(5.0, 6.0, 7.0), latitudes(history.since(0)));
+	}
+
+	@Test
+	public void downsamplesTheOlderLocations() {
+		LocationHistory history = history(new LocationHistorySettings(2, Duration.ZERO, 3, Duration.ofSeconds(10)));
+
+		// one location every 4 seconds
+		for (int i = 0; i < 10; i++) {
+			history.add(visit(i, i * 4000L));
+		}
+
+		// 0s, 12s and 24s are kept from the older ones, 8 and 9 are the most recent
+		assertEquals(List.of(0.0, 3.0, 6.0, 8.0, 9.0), latitudes(history.since(0)));
+		assertEquals(List.of(6.0, 8.0, 9.0), latitudes(history.since(4)));
+	}
+
+	@Test
+	public void growsPastLocationsWrappedAroundTheBuffer() {
+		LocationHistory history = history(new LocationHistorySettings(32, Duration.ofSeconds(10), 0, Duration.ZERO));
+
+		for (int i = 0; i < 6; i++) {
+			history.add(visit(i, i * 1000L));
+		}
+		// drops every location before it, so the next ones wrap around before the buffer grows
+		history.add(visit(6, 100_000));
+		for (int i = 7; i < 17; i++) {
+			history.add(visit(i, (94 + i) * 1000L));
+		}
+
+		assertEquals(11, history.size());
+		assertEquals(List.of(6.0, 7.0, 8.0, 9.0, 10.0, 11.0, 12.0, 13.0, 14.0, 15.0, 16.0), latitudes(history.since(0)));
+		assertEquals(List.of(12.0, 13.0, 14.0, 15.0, 16.0), latitudes(history.since(12)));
+	}
+
+	@Test
+	public void rewardClaimsSkipTheLocationsDroppedBeforeBeingClaimed() {
+		User user = new User(USER_ID, "jon", "000", "jon@tourGuide.com",
+				history(new LocationHistorySettings(2, Duration.ZERO, 0, Duration.ZERO)));
+		user.addToVisitedLocations(visit(0, 0));
+		assertEquals(1, user.claimLocationsToReward(0).size());
+
+		for (int i = 1; i < 6; i++) {
+			user.addToVisitedLocations(visit(i, i * 1000L));
+		}
+
+		assertEquals(List.of(4.0, 5.0), latitudes(user.claimLocationsToReward(0)));
+		assertTrue(user.claimLocationsToReward(0).isEmpty());
+		user.addToVisitedLocations(visit(6, 6000));
+		assertEquals(List.of(6.0), latitudes(user.claimLocationsToReward(0)));
+	}
+
+	private static LocationHistory history(LocationHistorySettings settings) {
+		return new RingBufferLocationHistory(USER_ID, settings);
+	}
+
+	private static VisitedLocation visit(double latitude, long time) {
+		return new VisitedLocation(USER_ID, new Location(latitude, 0), new Date(time));
+	}
+
+	private static List<Double> latitudes(List<VisitedLocation> locations) {
+		return locations.stream().map(visitedLocation -> visitedLocation.location.latitude).toList();
+	}
+}
@@ -19,9 +19,11 @@ import gpsUtil.location.VisitedLocation;
 import org.springframework.beans.factory.annotation.Autowired;
 import rewardCentral.RewardCentral;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardBatch;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserRepository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,7 +60,7 @@ public class TestPerformance {
 		InternalTestHelper.setInternalUserNumber(100000);
 		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService, new RewardCentral());
 
-		List<User> allUsers = tourGuideService.getAllUsers();
+		UserRepository userRepository = tourGuideService.getUserRepository();
 
 		StopWatch stopWatch = new StopWatch();
 		stopWatch.start();
@@ -66,7 +68,7 @@ public class TestPerformance {
 		// List to store all CompletableFutures
 		List<CompletableFuture<VisitedLocation>> futures = new ArrayList<>();
 
-		for (User user : allUsers) {
+		for (User user : userRepository) {
 			// Launch each user location tracking asynchronously and store the CompletableFuture
 			CompletableFuture<VisitedLocation> future = tourGuideService.trackUserLocation(user);
 			futures.add(future);
@@ -100,20 +102,18 @@ public class TestPerformance {
 		stopWatch.start();
 
 		Attraction attraction = rewardsService.getAttractions().get(0);
-		List<User> allUsers = tourGuideService.getAllUsers();
-		allUsers.forEach(u -> u.addToVisitedLocations(new VisitedLocation(u.getUserId(), attraction, new Date())));
+		UserRepository userRepository = tourGuideService.getUserRepository();
+		userRepository.forEach(u -> u.addToVisitedLocations(new VisitedLocation(u.getUserId(), attraction, new Date())));
 
-		// Collect all CompletableFutures from calculateRewards calls
-		List<CompletableFuture<Void>> futures = allUsers.stream()
-				.map(rewardsService::calculateRewards)
-				.toList();
+		// Calculate the rewards of all users as one batch
+		RewardBatch batch = rewardsService.calculateRewards(userRepository);
 
-		// Wait for all calculateRewards calls to complete
-		CompletableFuture<Void> completableFuture = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+		// Wait for the whole batch to complete
+		CompletableFuture<Void> completableFuture = batch.getCompletion();
 
 		assertDoesNotThrow(() -> completableFuture.get(20, TimeUnit.MINUTES));
 
-		allUsers.forEach(user -> assertFalse(user.getUserRewards().isEmpty()));
+		userRepository.forEach(user -> assertFalse(user.getUserRewards().isEmpty()));
 
 		stopWatch.stop();
 		tourGuideService.tracker.stopTracking();
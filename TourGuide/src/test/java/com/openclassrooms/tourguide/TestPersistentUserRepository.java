@@ -0,0 +1,141 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.persistence.LocationSegmentStore;
+import com.openclassrooms.tourguide.user.persistence.PersistentUserRepository;
+
+public class TestPersistentUserRepository {
+
+	@Test
+	public void usersAndLocationsSurviveReopening() throws IOException {
+		Path directory = Files.createTempDirectory("users");
+		try {
+			User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+			jon.addToVisitedLocations(visit(jon, 1, 2, 1000));
+			User jane = new User(UUID.randomUUID(), "jane", null, "jane@tourGuide.com");
+
+			try (PersistentUserRepository repository = new PersistentUserRepository(directory, 4, 4)) {
+				assertTrue(repository.add(jon));
+				assertTrue(repository.add(jane));
+				assertFalse(repository.add(new User(UUID.randomUUID(), "jon", "111", "jon2@tourGuide.com")));
+				// interleaved appends of both users, over several segments of 4 records
+				for (int i = 0; i < 5; i++) {
+					jon.addToVisitedLocations(visit(jon, 10 + i, 20 + i, 2000 + i));
+					jane.addToVisitedLocations(visit(jane, -10 - i, -20 - i, 3000 + i));
+				}
+				assertEquals(6, jon.getVisitedLocations().size());
+			}
+
+			try (PersistentUserRepository repository = new PersistentUserRepository(directory, 4, 4)) {
+				assertEquals(2, repository.size());
+				assertTrue(repository.getLocationStore().getSegmentCount() >= 3);
+				User reloadedJon = repository.findByUserName("jon");
+				User reloadedJane = repository.findByUserName("jane");
+
+				assertEquals(jon.getUserId(), reloadedJon.getUserId());
+				assertEquals("jon@tourGuide.com", reloadedJon.getEmailAddress());
+				assertNull(reloadedJane.getPhoneNumber());
+				assertLocations(jon.getVisitedLocations(), reloadedJon.getVisitedLocations());
+				assertLocations(jane.getVisitedLocations(), reloadedJane.getVisitedLocations());
+				assertEquals(14.0, reloadedJon.getLastVisitedLocation().location.latitude, 0.0);
+
+				reloadedJon.addToVisitedLocations(visit(reloadedJon, 50, 60, 4000));
+				assertEquals(7, reloadedJon.claimLocationsToReward(0).size());
+			}
+		} finally {
+			deleteRecursively(directory);
+		}
+	}
+
+	@Test
+	public void clearedHistoryStaysClearedAfterReopening() throws IOException {
+		Path directory = Files.createTempDirectory("users");
+		try {
+			User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+			try (PersistentUserRepository repository = new PersistentUserRepository(directory, 4, 16)) {
+				repository.add(jon);
+				jon.addToVisitedLocations(visit(jon, 1, 2, 1000));
+				jon.clearVisitedLocations();
+				jon.addToVisitedLocations(visit(jon, 3, 4, 2000));
+			}
+
+			try (PersistentUserRepository repository = new PersistentUserRepository(directory, 4, 16)) {
+				List<VisitedLocation> locations = repository.findByUserName("jon").getVisitedLocations();
+				assertEquals(1, locations.size());
+				assertEquals(3.0, locations.get(0).location.latitude, 0.0);
+			}
+		} finally {
+			deleteRecursively(directory);
+		}
+	}
+
+	@Test
+	public void recoveryStopsAtTheWatermarkOfTheSegment() throws IOException {
+		Path directory = Files.createTempDirectory("users");
+		try {
+			User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+			try (PersistentUserRepository repository = new PersistentUserRepository(directory, 4, 1 << 16)) {
+				repository.addAll(List.of(jon, new User(UUID.randomUUID(), "jane", null, "jane@tourGuide.com")));
+				for (int i = 0; i < 3; i++) {
+					jon.addToVisitedLocations(visit(jon, i, i, 1000 + i));
+				}
+			}
+			// a record far past the watermark, never reached by the appends, is not scanned
+			try (FileChannel segment = FileChannel.open(directory.resolve("locations-00000.seg"), StandardOpenOption.WRITE)) {
+				ByteBuffer userId = ByteBuffer.allocate(Long.BYTES).putLong(0, jon.getUserId().getMostSignificantBits());
+				segment.write(userId, LocationSegmentStore.RECORD_SIZE * 60_001L);
+			}
+
+			try (PersistentUserRepository repository = new PersistentUserRepository(directory, 4, 1 << 16)) {
+				assertEquals(2, repository.size());
+				assertEquals(3, repository.getLocationStore().getRecordCount());
+				assertEquals(3, repository.findByUserName("jon").getVisitedLocations().size());
+			}
+		} finally {
+			deleteRecursively(directory);
+		}
+	}
+
+	private static VisitedLocation visit(User user, double latitude, double longitude, long time) {
+		return new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date(time));
+	}
+
+	private static void assertLocations(List<VisitedLocation> expected, List<VisitedLocation> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).userId, actual.get(i).userId);
+			assertEquals(expected.get(i).location.latitude, actual.get(i).location.latitude, 0.0);
+			assertEquals(expected.get(i).location.longitude, actual.get(i).location.longitude, 0.0);
+			assertEquals(expected.get(i).timeVisited, actual.get(i).timeVisited);
+		}
+	}
+
+	private static void deleteRecursively(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.service.RewardPointsCache;
+
+public class TestRewardPointsCache {
+
+	@Test
+	public void repeatedLookupIsServedFromCache() {
+		AtomicInteger calls = new AtomicInteger();
+		RewardPointsCache cache = new RewardPointsCache(
+				(attractionId, userId) -> CompletableFuture.completedFuture(calls.incrementAndGet()),
+				10, 1, TimeUnit.HOURS);
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+
+		int first = cache.get(attractionId, userId).join();
+		int second = cache.get(attractionId, userId).join();
+
+		assertEquals(first, second);
+		assertEquals(1, calls.get());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void concurrentMissesShareOneLookup() {
+		AtomicInteger calls = new AtomicInteger();
+		CompletableFuture<Integer> pending = new CompletableFuture<>();
+		RewardPointsCache cache = new RewardPointsCache(
+				(attractionId, userId) -> {
+					calls.incrementAndGet();
+					return pending;
+				},
+				10, 1, TimeUnit.HOURS);
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+
+		CompletableFuture<Integer> first = cache.get(attractionId, userId);
+		CompletableFuture<Integer> second = cache.get(attractionId, userId);
+		pending.complete(42);
+
+		assertSame(first, second);
+		assertEquals(42, second.join());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void expiredEntryIsReloaded() {
+		AtomicInteger calls = new AtomicInteger();
+		AtomicLong now = new AtomicLong();
+		RewardPointsCache cache = new RewardPointsCache(
+				(attractionId, userId) -> CompletableFuture.completedFuture(calls.incrementAndGet()),
+				10, 1, TimeUnit.MINUTES, now::get);
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+
+		cache.get(attractionId, userId).join();
+		now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+		cache.get(attractionId, userId).join();
+
+		assertEquals(2, calls.get());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void reloadingEntryServesLastKnownPoints() {
+		AtomicLong now = new AtomicLong();
+		CompletableFuture<Integer> reload = new CompletableFuture<>();
+		RewardPointsCache cache = new RewardPointsCache(
+				(attractionId, userId) -> now.get() == 0 ? CompletableFuture.completedFuture(7) : reload,
+				10, 1, TimeUnit.MINUTES, now::get);
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+
+		assertTrue(cache.getLastKnown(attractionId, userId).isEmpty());
+		cache.get(attractionId, userId).join();
+		now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+		cache.get(attractionId, userId);
+
+		assertEquals(7, cache.getLastKnown(attractionId, userId).getAsInt());
+		reload.complete(9);
+		assertEquals(9, cache.getLastKnown(attractionId, userId).getAsInt());
+	}
+
+	@Test
+	public void sizeIsBounded() {
+		AtomicLong now = new AtomicLong();
+		RewardPointsCache cache = new RewardPointsCache(
+				(attractionId, userId) -> CompletableFuture.completedFuture(1),
+				100, 1, TimeUnit.HOURS, now::get);
+
+		for (int i = 0; i < 1000; i++) {
+			now.incrementAndGet();
+			cache.get(UUID.randomUUID(), UUID.randomUUID()).join();
+		}
+
+		assertTrue(cache.size() <= 100);
+		assertTrue(cache.getEvictionCount() >= 900);
+	}
+
+	@Test
+	public void oldestEntryIsEvictedFirst() {
+		AtomicLong now = new AtomicLong();
+		RewardPointsCache cache = new RewardPointsCache(
+				(attractionId, userId) -> CompletableFuture.completedFuture(1),
+				3, 1, TimeUnit.HOURS, now::get);
+		UUID attractionId = UUID.randomUUID();
+		UUID[] userIds = { UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID() };
+
+		for (UUID userId : userIds) {
+			now.incrementAndGet();
+			cache.get(attractionId, userId).join();
+		}
+
+		assertEquals(3, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertTrue(cache.getLastKnown(attractionId, userIds[0]).isEmpty());
+		assertEquals(1, cache.getLastKnown(attractionId, userIds[3]).getAsInt());
+	}
+
+	@Test
+	public void failedLookupIsNotCached() {
+		AtomicInteger calls = new AtomicInteger();
+		RewardPointsCache cache = new RewardPointsCache(
+				(attractionId, userId) -> calls.incrementAndGet() == 1
+						? CompletableFuture.failedFuture(new IllegalStateException("unavailable"))
+						: CompletableFuture.completedFuture(7),
+				10, 1, TimeUnit.HOURS);
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+
+		assertTrue(cache.get(attractionId, userId).isCompletedExceptionally());
+		assertEquals(7, cache.get(attractionId, userId).join());
+	}
+}
@@ -1,22 +1,34 @@
 package com.openclassrooms.tourguide;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.attraction.GeoPoint;
+import com.openclassrooms.tourguide.attraction.NearestAttractions;
+import com.openclassrooms.tourguide.dependency.GpsGateway;
+import com.openclassrooms.tourguide.dependency.simulation.SimulatedGps;
+import com.openclassrooms.tourguide.dependency.simulation.SimulationSettings;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardBatch;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
@@ -68,4 +80,142 @@ public class TestRewardsService {
 		assertEquals(rewardsService.getAttractions().size(), userRewards.size());
 	}
 
+	@Test
+	public void largeAttractionTableIsScannedThroughTheIndex() throws Exception {
+		// above the linear scan threshold, so the proximity matching goes through the k-d tree
+		SimulatedGps gps = new SimulatedGps(SimulationSettings.zeroLatency(42), 1000);
+		RewardsService rewardsService = new RewardsService(gps, (attractionId, userId) -> 100);
+		rewardsService.setProximityBuffer(1);
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = rewardsService.getAttractions().get(500);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		rewardsService.calculateRewards(user).get();
+
+		assertEquals(1, user.getUserRewards().size());
+		assertEquals(attraction.attractionName, user.getUserRewards().get(0).attraction.attractionName);
+		NearestAttractions nearest = rewardsService.getNearestAttractions(GeoPoint.of(attraction), 1);
+		assertEquals(500, nearest.id(0));
+	}
+
+	@Test
+	public void calculateRewardsOnlyProcessesNewLocations() throws Exception {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		List<Attraction> attractions = rewardsService.getAttractions();
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(0), new Date()));
+		rewardsService.calculateRewards(user).get();
+
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(1), new Date()));
+		rewardsService.calculateRewards(user).get();
+
+		assertEquals(2, user.getUserRewards().size());
+		assertTrue(user.claimLocationsToReward(0).isEmpty());
+	}
+
+	@Test
+	public void failedLookupIsRetriedByTheNextCalculation() {
+		AtomicBoolean rewardCentralDown = new AtomicBoolean(true);
+		RewardsService rewardsService = new RewardsService(GpsGateway.of(new GpsUtil()), (attractionId, userId) -> {
+			if (rewardCentralDown.get()) {
+				throw new IllegalStateException("RewardCentral unavailable");
+			}
+			return 100;
+		});
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = rewardsService.getAttractions().get(0);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		assertThrows(CompletionException.class, () -> rewardsService.calculateRewards(user).join());
+		assertTrue(user.getUserRewards().isEmpty());
+
+		rewardCentralDown.set(false);
+		rewardsService.calculateRewards(user).join();
+
+		assertEquals(1, user.getUserRewards().size());
+		assertEquals(100, user.getUserRewards().get(0).getRewardPoints());
+	}
+
+	@Test
+	public void concurrentCalculationCompletesOnceTheRewardsInProgressAreGranted() {
+		CompletableFuture<Void> rewardCentralAnswers = new CompletableFuture<>();
+		RewardsService rewardsService = new RewardsService(GpsGateway.of(new GpsUtil()), (attractionId, userId) -> {
+			rewardCentralAnswers.join();
+			return 100;
+		});
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = rewardsService.getAttractions().get(0);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		CompletableFuture<Void> first = rewardsService.calculateRewards(user);
+		// finds no new location, but must not complete before the first calculation grants its reward
+		CompletableFuture<Void> second = rewardsService.calculateRewards(user);
+		assertFalse(second.isDone());
+
+		rewardCentralAnswers.complete(null);
+		second.join();
+
+		assertTrue(first.isDone());
+		assertEquals(1, user.getUserRewards().size());
+	}
+
+	@Test
+	public void grantedAndDuplicateRewardsAreCounted() throws Exception {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		Attraction attraction = rewardsService.getAttractions().get(0);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		rewardsService.calculateRewards(user).get();
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		rewardsService.calculateRewards(user).get();
+
+		assertEquals(1, user.getUserRewards().size());
+		assertEquals(1, rewardsService.getGrantedRewardCount());
+		// the second location of the first calculation, and the location of the second one
+		assertEquals(2, rewardsService.getDuplicateRewardCount());
+	}
+
+	@Test
+	public void proximityBufferChangeTriggersFullRecompute() throws Exception {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(0, 0), new Date()));
+		rewardsService.calculateRewards(user).get();
+		assertTrue(user.getUserRewards().isEmpty());
+
+		rewardsService.setProximityBuffer(Integer.MAX_VALUE);
+		rewardsService.calculateRewards(user).get();
+
+		assertEquals(rewardsService.getAttractions().size(), user.getUserRewards().size());
+	}
+
+	@Test
+	public void calculateRewardsForManyUsers() throws Exception {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+
+		Attraction attraction = rewardsService.getAttractions().get(0);
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			User user = new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com");
+			user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+			users.add(user);
+		}
+
+		RewardBatch batch = rewardsService.calculateRewards(users);
+		batch.getCompletion().get();
+
+		assertEquals(2, batch.getTotalChunks());
+		assertEquals(2, batch.getCompletedChunks());
+		assertEquals(users.size(), batch.getCompletedUsers());
+		users.forEach(user -> assertEquals(1, user.getUserRewards().size()));
+	}
+
 }
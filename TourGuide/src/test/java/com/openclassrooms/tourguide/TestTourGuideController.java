@@ -0,0 +1,96 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestTourGuideController {
+
+	@Test
+	public void getAllCurrentLocationsStreamsOneLinePerLocatedUser() throws IOException {
+		InternalTestHelper.setInternalUserNumber(50);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.start()) {
+			TourGuideService tourGuideService = tourGuide.tourGuideService;
+			tourGuideService.addUser(new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com"));
+			TourGuideController controller = createController(tourGuide);
+
+			ResponseEntity<StreamingResponseBody> response = controller.getAllCurrentLocations();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			response.getBody().writeTo(out);
+
+			assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+			// jon has no location yet
+			List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+			assertEquals(50, lines.size());
+			User user = tourGuideService.getUser("internalUser7");
+			VisitedLocation visitedLocation = user.getLastVisitedLocation();
+			assertTrue(lines.contains("{\"userId\":\"" + user.getUserId() + "\",\"latitude\":"
+					+ visitedLocation.location.latitude + ",\"longitude\":" + visitedLocation.location.longitude + "}"));
+		}
+	}
+
+	@Test
+	public void getTripDealsCompletesWithTheDealsOfTheUser() {
+		InternalTestHelper.setInternalUserNumber(1);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.start()) {
+			TourGuideController controller = createController(tourGuide);
+
+			assertEquals(5, controller.getTripDeals("internalUser0").join().size());
+			assertEquals(5, tourGuide.tourGuideService.getUser("internalUser0").getTripDeals().size());
+		}
+	}
+
+	@Test
+	public void getNearbyAttractionsRejectsACountBelowOne() {
+		InternalTestHelper.setInternalUserNumber(1);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.start()) {
+			TourGuideController controller = createController(tourGuide);
+
+			ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+					() -> controller.getNearbyAttractions("internalUser0", 0));
+			assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+			assertThrows(ResponseStatusException.class, () -> controller.getNearbyAttractions("internalUser0", -1));
+			// more than the 26 attractions returns every attraction
+			assertEquals(26, controller.getNearbyAttractions("internalUser0", Integer.MAX_VALUE).join().size());
+		}
+	}
+
+	@Test
+	public void getEventsOfAnUnknownUserIsNotFound() {
+		InternalTestHelper.setInternalUserNumber(0);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.start()) {
+			TourGuideController controller = createController(tourGuide);
+
+			ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+					() -> controller.getEvents("unknown"));
+
+			assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+			assertEquals(0, tourGuide.rewardsService.getEventBus().getSubscriptionCount());
+		}
+	}
+
+	private static TourGuideController createController(SimulatedTourGuide tourGuide) {
+		TourGuideService tourGuideService = tourGuide.tourGuideService;
+		return new TourGuideController(tourGuideService, tourGuideService.getUserRepository(), Duration.ofMillis(500),
+				tourGuide.rewardsService.getEventBus(), Duration.ofMinutes(1));
+	}
+}
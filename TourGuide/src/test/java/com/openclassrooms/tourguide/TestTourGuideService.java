@@ -3,6 +3,7 @@ package com.openclassrooms.tourguide;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
@@ -15,6 +16,8 @@ import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.dependency.simulation.LatencyModel;
+import com.openclassrooms.tourguide.dependency.simulation.SimulationSettings;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
@@ -117,6 +120,51 @@ public class TestTourGuideService {
 		assertEquals(5, attractions.size());
 	}
 
+	@Test
+	public void getNearbyAttractionsReturnsTheRequestedCountClosestFirst() {
+		InternalTestHelper.setInternalUserNumber(0);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.start()) {
+			TourGuideService tourGuideService = tourGuide.tourGuideService;
+			VisitedLocation visitedLocation = tourGuide.gps.getUserLocation(UUID.randomUUID());
+			List<Double> expectedDistances = tourGuide.gps.getAttractions().stream()
+					.map(attraction -> tourGuide.rewardsService.getDistance(attraction, visitedLocation.location))
+					.sorted()
+					.limit(8)
+					.toList();
+
+			List<AttractionDTO> attractions = tourGuideService.getNearByAttractions(visitedLocation, 8);
+
+			assertEquals(8, attractions.size());
+			for (int i = 0; i < attractions.size(); i++) {
+				assertEquals(expectedDistances.get(i), attractions.get(i).getDistance(), 1e-9);
+			}
+			assertEquals(26, tourGuideService.getNearByAttractions(visitedLocation, 100).size());
+			assertEquals(0, tourGuideService.getNearByAttractions(visitedLocation, 0).size());
+		}
+	}
+
+	@Test
+	public void getNearbyAttractionsReturnsPendingPointsPastTheDeadline() {
+		SimulationSettings slowRewards = new SimulationSettings(42, LatencyModel.fixed(Duration.ofSeconds(1)), 0);
+		InternalTestHelper.setInternalUserNumber(0);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.builder().rewardCentral(slowRewards).start()) {
+			TourGuideService tourGuideService = tourGuide.tourGuideService;
+			VisitedLocation visitedLocation = tourGuide.gps.getUserLocation(UUID.randomUUID());
+
+			long start = System.nanoTime();
+			List<AttractionDTO> pending = tourGuideService.getNearByAttractions(visitedLocation, 5, Duration.ofMillis(100)).join();
+
+			assertTrue(System.nanoTime() - start < Duration.ofMillis(900).toNanos());
+			assertEquals(5, pending.size());
+			assertTrue(pending.stream().allMatch(attraction -> attraction.isRewardPointPending() && attraction.getRewardPoint() == 0));
+
+			List<AttractionDTO> attractions = tourGuideService.getNearByAttractions(visitedLocation, 5);
+
+			assertTrue(attractions.stream().noneMatch(AttractionDTO::isRewardPointPending));
+			assertTrue(attractions.stream().allMatch(attraction -> attraction.getRewardPoint() > 0));
+		}
+	}
+
 	public void getTripDeals() {
 		GpsUtil gpsUtil = new GpsUtil();
 		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
@@ -0,0 +1,65 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.TrackerCycle;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
+import com.openclassrooms.tourguide.user.ShardedUserRepository;
+
+public class TestTracker {
+
+	@Test
+	public void everyShardTracksItsUsersEachCycle() throws InterruptedException {
+		InternalTestHelper.setInternalUserNumber(20);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.builder()
+				.tracking(new TrackerSettings(Duration.ofMillis(500), 2, Duration.ZERO), new ShardedUserRepository(8))
+				.start()) {
+			TourGuideService tourGuideService = tourGuide.tourGuideService;
+
+			// Each internal user starts with 3 generated locations, a tracking cycle adds a 4th
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+			while ((!allUsersTracked(tourGuideService) || tourGuideService.tracker.getCompletedCycles() < 2)
+					&& System.nanoTime() < deadline) {
+				TimeUnit.MILLISECONDS.sleep(50);
+			}
+			tourGuideService.tracker.stopTracking();
+
+			assertTrue(allUsersTracked(tourGuideService));
+			assertTrue(tourGuideService.tracker.getCompletedCycles() >= 2);
+			assertEquals(0, tourGuideService.tracker.getFailureCount());
+		}
+	}
+
+	@Test
+	public void shardTrackingIsSpreadAcrossThePollingInterval() throws InterruptedException {
+		InternalTestHelper.setInternalUserNumber(10);
+		try (SimulatedTourGuide tourGuide = SimulatedTourGuide.builder()
+				.tracking(new TrackerSettings(Duration.ofSeconds(1), 1, Duration.ZERO), new ShardedUserRepository(1))
+				.start()) {
+			TourGuideService tourGuideService = tourGuide.tourGuideService;
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+			while (tourGuideService.tracker.getCompletedCycles() < 1 && System.nanoTime() < deadline) {
+				TimeUnit.MILLISECONDS.sleep(50);
+			}
+			tourGuideService.tracker.stopTracking();
+			TrackerCycle cycle = tourGuideService.tracker.getLastCycle();
+
+			// 10 slices of one user, 100 ms apart, instead of the 10 users at once
+			assertEquals(10, cycle.users());
+			assertTrue(cycle.duration().toMillis() >= 900);
+		}
+	}
+
+	private static boolean allUsersTracked(TourGuideService tourGuideService) {
+		return tourGuideService.getUserRepository().stream().allMatch(user -> user.getVisitedLocations().size() > 3);
+	}
+}
@@ -0,0 +1,99 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import tripPricer.Provider;
+import com.openclassrooms.tourguide.service.TripDealCache;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+public class TestTripDealCache {
+
+	@Test
+	public void concurrentIdenticalRequestsShareOneCall() {
+		AtomicInteger calls = new AtomicInteger();
+		CompletableFuture<List<Provider>> pending = new CompletableFuture<>();
+		TripDealCache cache = new TripDealCache(query -> {
+			calls.incrementAndGet();
+			return pending;
+		}, 100, 10, 1, TimeUnit.HOURS);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		CompletableFuture<List<Provider>> first = cache.get(user);
+		CompletableFuture<List<Provider>> second = cache.get(user);
+		pending.complete(List.of(new Provider(user.getUserId(), "Sunny Days", 100)));
+
+		assertSame(first, second);
+		assertEquals(1, second.join().size());
+		assertEquals(1, calls.get());
+		assertSame(second.join(), cache.get(user).join());
+		assertEquals(2, cache.getHitCount());
+	}
+
+	@Test
+	public void queryChangesWithTheRewardPointsBucket() {
+		List<TripDealCache.Query> queries = new ArrayList<>();
+		TripDealCache cache = new TripDealCache(query -> {
+			queries.add(query);
+			return CompletableFuture.completedFuture(List.of());
+		}, 100, 10, 1, TimeUnit.HOURS);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		cache.get(user).join();
+		addReward(user, 0, 60);
+		cache.get(user).join();
+		addReward(user, 1, 50);
+		cache.get(user).join();
+
+		assertEquals(110, user.getRewardPointsTotal());
+		// 0 and 60 points fall in the first bucket, 110 in the second
+		assertEquals(2, queries.size());
+		assertEquals(0, queries.get(0).rewardPoints());
+		assertEquals(100, queries.get(1).rewardPoints());
+
+		user.getUserPreferences().setNumberOfAdults(2);
+		cache.get(user).join();
+		assertEquals(3, queries.size());
+		assertEquals(2, queries.get(2).adults());
+	}
+
+	@Test
+	public void expiredDealsAreReloaded() {
+		AtomicInteger calls = new AtomicInteger();
+		AtomicLong now = new AtomicLong();
+		TripDealCache cache = new TripDealCache(query -> {
+			calls.incrementAndGet();
+			return CompletableFuture.completedFuture(List.of());
+		}, 100, 10, 10, TimeUnit.MINUTES, now::get);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		cache.get(user).join();
+		now.addAndGet(TimeUnit.MINUTES.toNanos(5));
+		cache.get(user).join();
+		now.addAndGet(TimeUnit.MINUTES.toNanos(5));
+		cache.get(user).join();
+
+		assertEquals(2, calls.get());
+	}
+
+	private static void addReward(User user, int attractionIndex, int rewardPoints) {
+		VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), new Location(0, 0), new Date());
+		Attraction attraction = new Attraction("attraction" + attractionIndex, "city", "state", 0, 0);
+		user.addUserReward(new UserReward(visitedLocation, attractionIndex, attraction, rewardPoints));
+	}
+}
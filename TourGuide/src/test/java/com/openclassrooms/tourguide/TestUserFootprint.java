@@ -0,0 +1,72 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.attraction.AttractionTable;
+import com.openclassrooms.tourguide.user.PackedLocation;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+public class TestUserFootprint {
+
+	@Test
+	public void packedLocationsKeepTheirCoordinatesToTheCentimeter() {
+		double[][] coordinates = { { 0, 0 }, { 33.817595, -117.922008 }, { -89.9999999, 179.9999999 }, { 90, -180 } };
+		for (double[] coordinate : coordinates) {
+			long packed = PackedLocation.pack(coordinate[0], coordinate[1]);
+			assertEquals(coordinate[0], PackedLocation.latitude(packed), 1e-7);
+			assertEquals(coordinate[1], PackedLocation.longitude(packed), 1e-7);
+		}
+		assertEquals(-117.0, PackedLocation.longitude(PackedLocation.pack(1, -117)), 0.0);
+	}
+
+	@Test
+	public void rewardWithoutIndexLooksItUpInTheAttractionTable() {
+		UUID userId = UUID.randomUUID();
+		User user = new User(userId, "jon", "000", "jon@tourGuide.com");
+		VisitedLocation visitedLocation = new VisitedLocation(userId, new Location(33.817595, -117.922008), new Date());
+		Attraction disneyland = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+		Attraction jacksonHole = new Attraction("Jackson Hole", "Jackson Hole", "WY", 43.582767, -110.821999);
+		new AttractionTable(List.of(jacksonHole, disneyland));
+
+		assertTrue(user.addUserReward(new UserReward(visitedLocation, disneyland, 10)));
+
+		assertTrue(user.isRewarded(1));
+		assertFalse(user.addUserReward(new UserReward(visitedLocation, 1, disneyland, 20)));
+		Attraction unknown = new Attraction("Unknown", "Nowhere", "NV", 0, 0);
+		assertThrows(IllegalArgumentException.class, () -> new UserReward(visitedLocation, unknown, 10));
+	}
+
+	@Test
+	public void rewardsAreDeduplicatedOnTheAttractionIndex() {
+		UUID userId = UUID.randomUUID();
+		User user = new User(userId, "jon", "000", "jon@tourGuide.com");
+		VisitedLocation visitedLocation = new VisitedLocation(userId, new Location(33.817595, -117.922008), new Date());
+		Attraction disneyland = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+
+		assertTrue(user.addUserReward(new UserReward(visitedLocation, 70, disneyland, 10)));
+		assertFalse(user.addUserReward(new UserReward(visitedLocation, 70, disneyland, 20)));
+
+		assertTrue(user.isRewarded(70));
+		assertFalse(user.isRewarded(6));
+		// every reward carries its table index, the only key rewards are deduplicated on
+		assertThrows(IllegalArgumentException.class, () -> new UserReward(visitedLocation, -1, disneyland, 10));
+		List<UserReward> userRewards = user.getUserRewards();
+		assertEquals(1, userRewards.size());
+		assertEquals(10, userRewards.get(0).getRewardPoints());
+		assertEquals(visitedLocation.timeVisited, userRewards.get(0).getVisitedLocation().timeVisited);
+		assertEquals(33.817595, userRewards.get(0).getVisitedLocation().location.latitude, 1e-7);
+	}
+}
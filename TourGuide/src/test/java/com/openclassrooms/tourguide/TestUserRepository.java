@@ -0,0 +1,90 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.user.ShardedUserRepository;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserRepository;
+
+public class TestUserRepository {
+
+	@Test
+	public void addKeepsTheFirstUserOfAName() {
+		UserRepository repository = new ShardedUserRepository(4);
+		User jon = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		assertTrue(repository.add(jon));
+		assertFalse(repository.add(new User(UUID.randomUUID(), "jon", "111", "jon2@tourGuide.com")));
+
+		assertSame(jon, repository.findByUserName("jon"));
+		assertNull(repository.findByUserName("jon2"));
+		assertEquals(1, repository.size());
+	}
+
+	@Test
+	public void shardsPartitionTheUsers() {
+		UserRepository repository = repositoryOf(1000, 16);
+
+		Set<String> seen = new HashSet<>();
+		int total = 0;
+		for (int shard = 0; shard < repository.shardCount(); shard++) {
+			for (User user : repository.shard(shard)) {
+				seen.add(user.getUserName());
+				total++;
+			}
+		}
+
+		assertEquals(1000, total);
+		assertEquals(1000, seen.size());
+	}
+
+	@Test
+	public void iteratorAndStreamsVisitEveryUserOnce() {
+		UserRepository repository = repositoryOf(1000, 16);
+
+		Set<String> iterated = new HashSet<>();
+		repository.forEach(user -> assertTrue(iterated.add(user.getUserName())));
+
+		assertEquals(1000, iterated.size());
+		assertEquals(1000, repository.parallelStream().map(User::getUserName).distinct().count());
+		assertEquals(1000, repository.parallelStream().count());
+		assertEquals(iterated, repository.stream().map(User::getUserName).collect(Collectors.toSet()));
+		assertEquals(1000, repository.findAll().size());
+	}
+
+	@Test
+	public void iterationToleratesConcurrentAdds() {
+		UserRepository repository = repositoryOf(1000, 8);
+
+		CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> IntStream.range(1000, 2000)
+				.forEach(i -> repository.add(new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com"))));
+		long seen = 0;
+		for (User user : repository) {
+			seen++;
+		}
+		writer.join();
+
+		assertTrue(seen >= 1000);
+		assertEquals(2000, repository.size());
+	}
+
+	private static UserRepository repositoryOf(int userCount, int shardCount) {
+		UserRepository repository = new ShardedUserRepository(shardCount);
+		IntStream.range(0, userCount).forEach(i ->
+				repository.add(new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com")));
+		return repository;
+	}
+}